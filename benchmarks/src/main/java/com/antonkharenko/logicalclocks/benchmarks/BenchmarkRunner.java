@@ -0,0 +1,66 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks selected by the standard JMH command line (all benchmarks by default). If
+ * {@code benchmark.threads} system property is set, benchmarks are run once for each of the thread
+ * counts listed in it (comma separated), otherwise thread count is taken from the command line. GC
+ * profiler is always enabled, so allocation rate per operation and GC counts are reported next to
+ * the timings. Informational options, such as {@code -h} or {@code -l}, are handled by the standard
+ * JMH launcher.
+ *
+ * <pre>
+ * java -Dbenchmark.threads=1,4,16,32 -jar target/benchmarks.jar LogicalClockBenchmark
+ * </pre>
+ *
+ * @author Anton Kharenko
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args)
+      throws RunnerException, CommandLineOptionException, IOException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()
+        || commandLineOptions.shouldListWithParams() || commandLineOptions.shouldListProfilers()
+        || commandLineOptions.shouldListResultFormats()) {
+      Main.main(args);
+      return;
+    }
+    String threadCounts = System.getProperty("benchmark.threads");
+    if (threadCounts == null) {
+      run(commandLineOptions, -1);
+      return;
+    }
+    for (String threadCount : threadCounts.split(",")) {
+      run(commandLineOptions, Integer.parseInt(threadCount.trim()));
+    }
+  }
+
+  /**
+   * Runs benchmarks with the given number of threads or with the number of threads from the
+   * command line if it is negative.
+   */
+  private static void run(CommandLineOptions commandLineOptions, int threadCount)
+      throws RunnerException {
+    ChainedOptionsBuilder builder = new OptionsBuilder()
+        .parent(commandLineOptions)
+        .addProfiler(GCProfiler.class);
+    if (threadCount >= 0) {
+      builder.threads(threadCount);
+    }
+    new Runner(builder.build()).run();
+  }
+}
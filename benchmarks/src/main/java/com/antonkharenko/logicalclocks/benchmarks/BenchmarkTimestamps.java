@@ -0,0 +1,23 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+/**
+ * Utility methods for preparing benchmark input data.
+ *
+ * @author Anton Kharenko
+ */
+final class BenchmarkTimestamps {
+
+  private BenchmarkTimestamps() {
+  }
+
+  /**
+   * Returns vector entries of the given length with distinct values starting from the given one.
+   */
+  static long[] entries(int vectorLength, long firstValue) {
+    long[] entries = new long[vectorLength];
+    for (int i = 0; i < vectorLength; i++) {
+      entries[i] = firstValue + i;
+    }
+    return entries;
+  }
+}
@@ -0,0 +1,57 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.antonkharenko.logicalclocks.LogicalClock;
+import com.antonkharenko.logicalclocks.LogicalTimestamp;
+
+/**
+ * Measures throughput of the shared {@link LogicalClock} under contention. Number of threads is
+ * controlled by {@link BenchmarkRunner} or by the {@code -t} option of JMH.
+ *
+ * @author Anton Kharenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogicalClockBenchmark {
+
+  /**
+   * Percentage of operations which merge received timestamp instead of doing local tick.
+   */
+  @Param({"0", "50", "100"})
+  public int mergePercent;
+
+  private LogicalClock clock;
+  private LogicalTimestamp receivedTimestamp;
+
+  @Setup
+  public void setUp() {
+    clock = new LogicalClock();
+    receivedTimestamp = LogicalTimestamp.fromLong(1000L);
+  }
+
+  @Benchmark
+  public LogicalTimestamp tick(OperationMix operationMix) {
+    if (operationMix.nextIsMerge(mergePercent)) {
+      return clock.tick(receivedTimestamp);
+    } else {
+      return clock.tick();
+    }
+  }
+}
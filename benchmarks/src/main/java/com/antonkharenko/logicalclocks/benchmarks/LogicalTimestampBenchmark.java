@@ -0,0 +1,70 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.antonkharenko.logicalclocks.LogicalTimestamp;
+
+/**
+ * Measures comparison and serialization throughput of {@link LogicalTimestamp}.
+ *
+ * @author Anton Kharenko
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogicalTimestampBenchmark {
+
+  private LogicalTimestamp timestamp;
+  private LogicalTimestamp otherTimestamp;
+  private byte[] timestampBytes;
+  private ByteBuffer buffer;
+
+  @Setup
+  public void setUp() {
+    timestamp = LogicalTimestamp.fromLong(Long.MAX_VALUE - 10L);
+    otherTimestamp = LogicalTimestamp.fromLong(Long.MIN_VALUE + 10L);
+    timestampBytes = timestamp.toBytes();
+    buffer = ByteBuffer.allocateDirect(8);
+  }
+
+  @Benchmark
+  public int compareTo() {
+    return timestamp.compareTo(otherTimestamp);
+  }
+
+  @Benchmark
+  public byte[] toBytes() {
+    return timestamp.toBytes();
+  }
+
+  @Benchmark
+  public LogicalTimestamp fromBytes() {
+    return LogicalTimestamp.fromBytes(timestampBytes);
+  }
+
+  @Benchmark
+  public ByteBuffer writeTo() {
+    timestamp.writeTo(buffer, 0);
+    return buffer;
+  }
+
+  @Benchmark
+  public LogicalTimestamp readFrom() {
+    return LogicalTimestamp.readFrom(buffer, 0);
+  }
+}
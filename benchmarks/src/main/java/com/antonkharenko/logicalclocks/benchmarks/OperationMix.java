@@ -0,0 +1,26 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per thread state which deterministically interleaves merges of received timestamps with local
+ * ticks in the given proportion.
+ *
+ * @author Anton Kharenko
+ */
+@State(Scope.Thread)
+public class OperationMix {
+
+  private int operation;
+
+  /**
+   * Returns true if the next operation should merge received timestamp.
+   *
+   * @param mergePercent percentage of merge operations in the range [0, 100]
+   */
+  boolean nextIsMerge(int mergePercent) {
+    operation = operation == 99 ? 0 : operation + 1;
+    return operation < mergePercent;
+  }
+}
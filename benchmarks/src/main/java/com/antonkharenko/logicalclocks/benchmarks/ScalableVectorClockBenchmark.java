@@ -0,0 +1,60 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.antonkharenko.logicalclocks.ScalableVectorClock;
+import com.antonkharenko.logicalclocks.VectorTimestamp;
+
+/**
+ * Measures throughput of the shared {@link ScalableVectorClock} for a mix of local ticks and merges
+ * of received timestamps in the same setup as {@link VectorClockBenchmark}.
+ *
+ * @author Anton Kharenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalableVectorClockBenchmark {
+
+  @Param({"3", "64", "1024"})
+  public int vectorLength;
+
+  /**
+   * Percentage of operations which merge received timestamp instead of doing local tick.
+   */
+  @Param({"0", "50", "100"})
+  public int mergePercent;
+
+  private ScalableVectorClock clock;
+  private VectorTimestamp receivedTimestamp;
+
+  @Setup
+  public void setUp() {
+    clock = new ScalableVectorClock(0, vectorLength);
+    receivedTimestamp = VectorTimestamp.fromLongs(BenchmarkTimestamps.entries(vectorLength, 1L));
+  }
+
+  @Benchmark
+  public VectorTimestamp tick(OperationMix operationMix) {
+    if (operationMix.nextIsMerge(mergePercent)) {
+      return clock.tick(receivedTimestamp);
+    } else {
+      return clock.tick();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.antonkharenko.logicalclocks.VectorClock;
+import com.antonkharenko.logicalclocks.VectorTimestamp;
+
+/**
+ * Measures throughput of the shared {@link VectorClock} for a mix of local ticks and merges of
+ * received timestamps. Number of threads is controlled by {@link BenchmarkRunner} or by the
+ * {@code -t} option of JMH.
+ *
+ * @author Anton Kharenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorClockBenchmark {
+
+  @Param({"3", "64", "1024"})
+  public int vectorLength;
+
+  /**
+   * Percentage of operations which merge received timestamp instead of doing local tick.
+   */
+  @Param({"0", "50", "100"})
+  public int mergePercent;
+
+  private VectorClock clock;
+  private VectorTimestamp receivedTimestamp;
+
+  @Setup
+  public void setUp() {
+    clock = new VectorClock(0, vectorLength);
+    receivedTimestamp = VectorTimestamp.fromLongs(BenchmarkTimestamps.entries(vectorLength, 1L));
+  }
+
+  @Benchmark
+  public VectorTimestamp tick(OperationMix operationMix) {
+    if (operationMix.nextIsMerge(mergePercent)) {
+      return clock.tick(receivedTimestamp);
+    } else {
+      return clock.tick();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.antonkharenko.logicalclocks.Relation;
+import com.antonkharenko.logicalclocks.VectorTimestamp;
+import com.antonkharenko.logicalclocks.VectorTimestampBatch;
+
+/**
+ * Compares one vector timestamp against many, either one by one or with
+ * {@link VectorTimestampBatch}.
+ *
+ * @author Anton Kharenko
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorTimestampBatchBenchmark {
+
+  @Param({"8", "64"})
+  public int vectorLength;
+
+  @Param({"1000"})
+  public int batchSize;
+
+  private VectorTimestamp timestamp;
+  private VectorTimestamp[] timestamps;
+  private VectorTimestampBatch batch;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42L);
+    timestamp = VectorTimestamp.fromLongs(BenchmarkTimestamps.entries(vectorLength, 1000L));
+    timestamps = new VectorTimestamp[batchSize];
+    for (int i = 0; i < batchSize; i++) {
+      long[] entries = timestamp.toLongs();
+      for (int j = 0; j < vectorLength; j++) {
+        entries[j] += random.nextInt(3) - 1;
+      }
+      timestamps[i] = VectorTimestamp.fromLongs(entries);
+    }
+    batch = new VectorTimestampBatch(vectorLength, timestamps);
+  }
+
+  @Benchmark
+  public Relation[] compareEach() {
+    return timestamp.compare(timestamps);
+  }
+
+  @Benchmark
+  public Relation[] compareBatch() {
+    return batch.compare(timestamp);
+  }
+}
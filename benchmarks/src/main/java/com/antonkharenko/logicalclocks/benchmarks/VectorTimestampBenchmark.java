@@ -0,0 +1,96 @@
+package com.antonkharenko.logicalclocks.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.antonkharenko.logicalclocks.Relation;
+import com.antonkharenko.logicalclocks.VectorTimestamp;
+
+/**
+ * Measures comparison, increment, merge and binary encoding of {@link VectorTimestamp} across
+ * vector lengths.
+ *
+ * @author Anton Kharenko
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorTimestampBenchmark {
+
+  @Param({"3", "16", "64", "256", "1024"})
+  public int vectorLength;
+
+  private VectorTimestamp timestamp;
+  private VectorTimestamp happensAfterTimestamp;
+  private VectorTimestamp concurrentTimestamp;
+  private ByteBuffer buffer;
+
+  @Setup
+  public void setUp() {
+    long[] entries = BenchmarkTimestamps.entries(vectorLength, 1000L);
+    timestamp = VectorTimestamp.fromLongs(entries);
+
+    // Differences are put at the end of the vector, so comparison has to scan all entries
+    entries[vectorLength - 1]++;
+    happensAfterTimestamp = VectorTimestamp.fromLongs(entries);
+    entries[vectorLength - 2]--;
+    concurrentTimestamp = VectorTimestamp.fromLongs(entries);
+
+    buffer = ByteBuffer.allocate(timestamp.serializedSize());
+  }
+
+  @Benchmark
+  public Relation compareHappensBefore() {
+    return timestamp.compare(happensAfterTimestamp);
+  }
+
+  @Benchmark
+  public Relation compareConcurrent() {
+    return timestamp.compare(concurrentTimestamp);
+  }
+
+  @Benchmark
+  public Relation compareEqual() {
+    return timestamp.compare(timestamp);
+  }
+
+  @Benchmark
+  public VectorTimestamp nextTimestamp() {
+    return timestamp.nextTimestamp(0);
+  }
+
+  @Benchmark
+  public VectorTimestamp nextTimestampWithMerge() {
+    return timestamp.nextTimestamp(0, happensAfterTimestamp);
+  }
+
+  @Benchmark
+  public ByteBuffer writeTo() {
+    buffer.clear();
+    timestamp.writeTo(buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public VectorTimestamp readFrom() {
+    buffer.clear();
+    timestamp.writeTo(buffer);
+    buffer.flip();
+    return VectorTimestamp.readFrom(buffer);
+  }
+}
@@ -0,0 +1,175 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Serializable;
+
+/**
+ * This class represents a set of events, e.g. accesses to a shared variable, in a compact form
+ * adapted to their ordering, as it is done by FastTrack race detector. This class is immutable.
+ *
+ * <p>
+ * While recorded events are totally ordered, the timestamp is kept as a single epoch
+ * {@code counter@index}, i.e. the entry of the process of the last event, and checking whether it
+ * happens before a vector timestamp takes constant time. Once concurrent events are recorded, the
+ * timestamp expands to a full vector which keeps the last event of each process. It collapses back
+ * into an epoch as soon as recorded event happens after all previous ones.
+ *
+ * <p>
+ * See also Cormac Flanagan and Stephen Freund paper <a
+ * href="https://users.soe.ucsc.edu/~cormac/papers/pldi09.pdf">FastTrack: Efficient and Precise
+ * Dynamic Race Detection</a> for more info.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp
+ */
+public final class AdaptiveTimestamp implements Serializable {
+
+  private static final long serialVersionUID = -5427329186408377165L;
+
+  private final int length;
+  private final int epochIndex;
+  private final long epochCounter;
+  private final VectorTimestamp vector;
+
+  private AdaptiveTimestamp(int length, int epochIndex, long epochCounter,
+      VectorTimestamp vector) {
+    this.length = length;
+    this.epochIndex = epochIndex;
+    this.epochCounter = epochCounter;
+    this.vector = vector;
+  }
+
+  /**
+   * Creates timestamp of the single event of the process with the given index.
+   *
+   * @param index index of the process
+   * @param counter entry of the process in its vector timestamp at the event
+   * @param length length of vector timestamps
+   */
+  public static AdaptiveTimestamp epoch(int index, long counter, int length) {
+    if (index < 0 || index >= length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    return new AdaptiveTimestamp(length, index, counter, null);
+  }
+
+  /**
+   * Creates timestamp which keeps the given vector timestamp.
+   */
+  public static AdaptiveTimestamp of(VectorTimestamp vector) {
+    return new AdaptiveTimestamp(vector.length(), -1, 0L, vector);
+  }
+
+  /**
+   * Returns true if this timestamp is kept as a single epoch.
+   */
+  public boolean isEpoch() {
+    return vector == null;
+  }
+
+  /**
+   * Returns length of vector timestamps.
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Returns index of the process of the epoch.
+   *
+   * @throws IllegalStateException if this timestamp is expanded to a vector
+   */
+  public int epochIndex() {
+    checkEpoch();
+    return epochIndex;
+  }
+
+  /**
+   * Returns counter of the epoch.
+   *
+   * @throws IllegalStateException if this timestamp is expanded to a vector
+   */
+  public long epochCounter() {
+    checkEpoch();
+    return epochCounter;
+  }
+
+  /**
+   * Returns this timestamp as vector timestamp. For epoch all entries except the entry of its
+   * process are zero.
+   */
+  public VectorTimestamp toVectorTimestamp() {
+    if (vector != null)
+      return vector;
+    long[] entries = new long[length];
+    entries[epochIndex] = epochCounter;
+    return new VectorTimestamp(entries);
+  }
+
+  /**
+   * Returns true if all recorded events happen before or at the moment of the given vector
+   * timestamp. For epoch it takes constant time.
+   */
+  public boolean isHappensBeforeOrEqual(VectorTimestamp timestamp) {
+    checkLength(timestamp);
+    if (vector == null)
+      return LogicalTimestamp.compare(epochCounter, timestamp.getAsLong(epochIndex)) <= 0;
+    return (VectorTimestamp.relationFlags(vector.entries(), timestamp.entries())
+        & VectorTimestamp.AFTER_FLAG) == 0;
+  }
+
+  /**
+   * Returns timestamp which records event of the process with the given index at the given vector
+   * time in addition to events recorded by this timestamp. Result is an epoch if the event happens
+   * after all recorded events and a vector otherwise.
+   *
+   * @param index index of the process of the event
+   * @param timestamp vector timestamp of the event
+   * @return Timestamp of recorded events.
+   */
+  public AdaptiveTimestamp record(int index, VectorTimestamp timestamp) {
+    if (index < 0 || index >= length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    if (isHappensBeforeOrEqual(timestamp))
+      return new AdaptiveTimestamp(length, index, timestamp.getAsLong(index), null);
+    long[] entries = toVectorTimestamp().toLongs();
+    entries[index] = timestamp.getAsLong(index);
+    return new AdaptiveTimestamp(length, -1, 0L, new VectorTimestamp(entries));
+  }
+
+  private void checkEpoch() {
+    if (vector != null)
+      throw new IllegalStateException("Timestamp is expanded to a vector.");
+  }
+
+  private void checkLength(VectorTimestamp timestamp) {
+    if (timestamp.length() != length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    AdaptiveTimestamp that = (AdaptiveTimestamp) o;
+    if (this.vector != null)
+      return this.vector.equals(that.vector);
+    return that.vector == null && this.length == that.length
+        && this.epochIndex == that.epochIndex && this.epochCounter == that.epochCounter;
+  }
+
+  @Override
+  public int hashCode() {
+    if (vector != null)
+      return vector.hashCode();
+    return 31 * (31 * length + epochIndex) + (int) (epochCounter ^ (epochCounter >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return vector != null ? vector.toString() : epochCounter + "@" + epochIndex;
+  }
+}
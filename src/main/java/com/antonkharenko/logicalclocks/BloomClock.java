@@ -0,0 +1,103 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class implements Bloom clock abstraction. Bloom clock captures causal relationships between
+ * events like {@link VectorClock} does, but its timestamps have fixed size which doesn't depend on
+ * the number of processes, so it fits very large or dynamic clusters where vector timestamps are
+ * too big. In exchange happens before relation between timestamps is probabilistic, while
+ * concurrency is always detected correctly.
+ *
+ * <p>
+ * Each event of the clock is identified by process id and local sequence number which are hashed
+ * into cells of {@link BloomTimestamp}. Process ids should be unique, but unlike vector clock they
+ * don't have to be dense indices.
+ *
+ * <p>
+ * This implementation provides methods to store and update local Bloom time in a thread safe and
+ * non-blocking way.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.BloomTimestamp
+ */
+public class BloomClock {
+
+  private final AtomicReference<State> stateReference = new AtomicReference<>();
+  private final int processId;
+
+  /**
+   * Creates instance of Bloom clock for the given process id with initial timestamp of the given
+   * size and hash count.
+   *
+   * @param processId unique id of the local process
+   * @param size number of cells of timestamps
+   * @param hashCount number of cells incremented per event
+   */
+  public BloomClock(int processId, int size, int hashCount) {
+    this(processId, new BloomTimestamp(size, hashCount));
+  }
+
+  /**
+   * Creates instance of Bloom clock for the given process id with the given initial timestamp.
+   */
+  public BloomClock(int processId, BloomTimestamp initialTimestamp) {
+    this.processId = processId;
+    this.stateReference.set(new State(initialTimestamp, 0L));
+  }
+
+  /**
+   * Returns current value of the clock.
+   */
+  public BloomTimestamp time() {
+    return stateReference.get().time;
+  }
+
+  /**
+   * Increments the clock time and returns newly set value of the clock.
+   *
+   * @return New value of the clock.
+   */
+  public BloomTimestamp tick() {
+    State previousState, nextState;
+    do {
+      previousState = stateReference.get();
+      long sequence = previousState.sequence + 1;
+      nextState = new State(previousState.time.nextTimestamp(processId, sequence), sequence);
+    } while (!stateReference.compareAndSet(previousState, nextState));
+    return nextState.time;
+  }
+
+  /**
+   * Increments the value of the clock taking into account that provided timestamp happens before
+   * that moment. Returns new value of the clock which happens after previous value of the clock and
+   * provided timestamp.
+   *
+   * @param happensBeforeTimestamp timestamp value which happens in the past
+   * @return New value of the clock.
+   */
+  public BloomTimestamp tick(BloomTimestamp happensBeforeTimestamp) {
+    State previousState, nextState;
+    do {
+      previousState = stateReference.get();
+      long sequence = previousState.sequence + 1;
+      nextState = new State(previousState.time.nextTimestamp(processId, sequence,
+          happensBeforeTimestamp), sequence);
+    } while (!stateReference.compareAndSet(previousState, nextState));
+    return nextState.time;
+  }
+
+  /**
+   * Current timestamp of the clock together with sequence number of the last local event.
+   */
+  private static final class State {
+
+    private final BloomTimestamp time;
+    private final long sequence;
+
+    private State(BloomTimestamp time, long sequence) {
+      this.time = time;
+      this.sequence = sequence;
+    }
+  }
+}
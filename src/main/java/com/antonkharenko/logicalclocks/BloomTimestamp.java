@@ -0,0 +1,293 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class represents specific time value of Bloom clock at the given moment of time. This class
+ * is immutable. Bloom timestamp is a counting Bloom filter of events in its causal history: each
+ * event identified by process id and sequence number increments a fixed number of cells chosen by
+ * hashing, and merge takes pointwise maximum of cells. Its size doesn't depend on the number of
+ * processes in the system.
+ *
+ * <p>
+ * Comparison is probabilistic in one direction only. If timestamps are not ordered pointwise, the
+ * events are definitely concurrent. If one timestamp is pointwise smaller, it probably happens
+ * before the other one and {@link #falsePositiveProbability(BloomTimestamp)} estimates probability
+ * that the events are concurrent nevertheless.
+ *
+ * <p>
+ * See also Lum Ramabaja paper <a href="https://arxiv.org/abs/1905.13064">The Bloom Clock</a> for
+ * more info.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.BloomClock
+ */
+public final class BloomTimestamp implements Serializable {
+
+  private static final long serialVersionUID = 7219180911938512683L;
+
+  private final long[] cells;
+  private final int hashCount;
+
+  /**
+   * Creates Bloom timestamp at the initial moment of time with the given number of cells and
+   * number of cells incremented per event.
+   */
+  public BloomTimestamp(int size, int hashCount) {
+    this(new long[checkSize(size)], hashCount);
+    if (hashCount <= 0 || hashCount > size)
+      throw new IllegalArgumentException("Hash count should be in the range [1, size].");
+  }
+
+  private BloomTimestamp(long[] cells, int hashCount) {
+    this.cells = cells;
+    this.hashCount = hashCount;
+  }
+
+  private static int checkSize(int size) {
+    if (size <= 0)
+      throw new IllegalArgumentException("Size should be positive.");
+    return size;
+  }
+
+  /**
+   * Returns number of cells.
+   */
+  public int size() {
+    return cells.length;
+  }
+
+  /**
+   * Returns number of cells incremented per event.
+   */
+  public int hashCount() {
+    return hashCount;
+  }
+
+  /**
+   * Returns value of the cell with the given index.
+   */
+  public long get(int index) {
+    if (index < 0 || index >= cells.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    return cells[index];
+  }
+
+  /**
+   * Returns sum of all cells.
+   */
+  public long sum() {
+    long sum = 0;
+    for (long cell : cells) {
+      sum += cell;
+    }
+    return sum;
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to current timestamp for the event
+   * with the given process id and sequence number.
+   */
+  public BloomTimestamp nextTimestamp(int processId, long sequence) {
+    long[] newCells = Arrays.copyOf(cells, cells.length);
+    addEvent(newCells, processId, sequence);
+    return new BloomTimestamp(newCells, hashCount);
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to both given timestamp and current
+   * timestamp for the event with the given process id and sequence number.
+   */
+  public BloomTimestamp nextTimestamp(int processId, long sequence,
+      BloomTimestamp happensBeforeTimestamp) {
+    checkCompatible(happensBeforeTimestamp);
+    long[] thatCells = happensBeforeTimestamp.cells;
+    long[] newCells = new long[cells.length];
+    for (int i = 0; i < newCells.length; i++) {
+      newCells[i] = Math.max(cells[i], thatCells[i]);
+    }
+    addEvent(newCells, processId, sequence);
+    return new BloomTimestamp(newCells, hashCount);
+  }
+
+  /**
+   * Increments cells chosen by double hashing of the event identity.
+   */
+  private void addEvent(long[] newCells, int processId, long sequence) {
+    long hash = mix(mix(processId) + sequence);
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32) | 1;
+    for (int i = 0; i < hashCount; i++) {
+      newCells[((hash1 + i * hash2) & Integer.MAX_VALUE) % newCells.length]++;
+    }
+  }
+
+  private static long mix(long value) {
+    long z = value * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns true if current timestamp probably happens before given timestamp.
+   *
+   * @see #falsePositiveProbability(BloomTimestamp)
+   */
+  public boolean isHappensBefore(BloomTimestamp that) {
+    return compare(that) == Relation.HAPPENS_BEFORE;
+  }
+
+  /**
+   * Returns true if current timestamp probably happens after given timestamp.
+   *
+   * @see #falsePositiveProbability(BloomTimestamp)
+   */
+  public boolean isHappensAfter(BloomTimestamp that) {
+    return compare(that) == Relation.HAPPENS_AFTER;
+  }
+
+  /**
+   * Returns true if current timestamp happens concurrently and there is no causal relation between
+   * them. This answer is always correct.
+   */
+  public boolean isConcurrent(BloomTimestamp that) {
+    return compare(that) == Relation.CONCURRENT;
+  }
+
+  /**
+   * Compares two Bloom timestamps and defines relation between them. Relations other than
+   * {@link Relation#CONCURRENT} are probabilistic.
+   *
+   * @param that given Bloom timestamp to compare
+   * @return {@code Relation} between current timestamp and the given one.
+   * @throws IllegalArgumentException if timestamps have different size or hash count
+   * @see com.antonkharenko.logicalclocks.Relation
+   */
+  public Relation compare(BloomTimestamp that) {
+    checkCompatible(that);
+    long[] thatCells = that.cells;
+    boolean before = false;
+    boolean after = false;
+    for (int i = 0; i < cells.length; i++) {
+      before |= cells[i] < thatCells[i];
+      after |= cells[i] > thatCells[i];
+      if (before && after)
+        return Relation.CONCURRENT;
+    }
+    if (before)
+      return Relation.HAPPENS_BEFORE;
+    return after ? Relation.HAPPENS_AFTER : Relation.EQUAL;
+  }
+
+  /**
+   * Estimates probability that events with pointwise ordered timestamps are concurrent, i.e. that
+   * {@link Relation#HAPPENS_BEFORE} or {@link Relation#HAPPENS_AFTER} answer of
+   * {@link #compare(BloomTimestamp)} is a false positive. It is the probability that all cells of
+   * an event unknown to the bigger timestamp are already covered by it, which grows with the sum of
+   * the bigger timestamp relative to its size.
+   *
+   * @param that given Bloom timestamp to compare
+   * @return Probability in the range [0, 1] or {@code 0} if timestamps are concurrent, since this
+   *         answer is always correct.
+   */
+  public double falsePositiveProbability(BloomTimestamp that) {
+    Relation relation = compare(that);
+    if (relation == Relation.CONCURRENT)
+      return 0.0;
+    long biggerSum = relation == Relation.HAPPENS_BEFORE ? that.sum() : sum();
+    double cellEmpty = Math.pow(1.0 - 1.0 / cells.length, biggerSum);
+    return Math.pow(1.0 - cellEmpty, hashCount);
+  }
+
+  private void checkCompatible(BloomTimestamp that) {
+    if (cells.length != that.cells.length || hashCount != that.hashCount)
+      throw new IllegalArgumentException("Bloom timestamps size or hash count do not match.");
+  }
+
+  /**
+   * Converts given byte array into corresponding Bloom timestamp. It is supposed that given byte
+   * array was produced by {@link BloomTimestamp#toBytes()} method.
+   */
+  public static BloomTimestamp fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    BloomTimestamp timestamp = readFrom(buffer);
+    if (buffer.hasRemaining())
+      throw new IllegalArgumentException("Unexpected bytes after encoded Bloom timestamp.");
+    return timestamp;
+  }
+
+  /**
+   * Converts this timestamp into a byte array. Cells are encoded as variable length integers.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Reads Bloom timestamp from the current position of the given buffer. It is supposed that it
+   * was written by {@link BloomTimestamp#writeTo(ByteBuffer)} method.
+   */
+  public static BloomTimestamp readFrom(ByteBuffer buffer) {
+    int size = VarInts.readNonNegativeInt(buffer);
+    int hashCount = VarInts.readNonNegativeInt(buffer);
+    if (size == 0 || size > buffer.remaining() || hashCount == 0 || hashCount > size)
+      throw new IllegalArgumentException("Malformed Bloom timestamp header.");
+    long[] cells = new long[size];
+    for (int i = 0; i < size; i++) {
+      cells[i] = VarInts.read(buffer);
+      if (cells[i] < 0)
+        throw new IllegalArgumentException("Malformed Bloom timestamp cell.");
+    }
+    return new BloomTimestamp(cells, hashCount);
+  }
+
+  /**
+   * Writes this timestamp at the current position of the given buffer.
+   */
+  public void writeTo(ByteBuffer buffer) {
+    VarInts.write(buffer, cells.length);
+    VarInts.write(buffer, hashCount);
+    for (long cell : cells) {
+      VarInts.write(buffer, cell);
+    }
+  }
+
+  /**
+   * Returns number of bytes written by {@link #writeTo(ByteBuffer)}.
+   */
+  public int serializedSize() {
+    int size = VarInts.sizeOf(cells.length) + VarInts.sizeOf(hashCount);
+    for (long cell : cells) {
+      size += VarInts.sizeOf(cell);
+    }
+    return size;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    BloomTimestamp that = (BloomTimestamp) o;
+    return this.hashCount == that.hashCount && Arrays.equals(this.cells, that.cells);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(cells) + hashCount;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(cells);
+  }
+}
@@ -0,0 +1,414 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class implements causal delivery of broadcast messages stamped with vector timestamps
+ * according to the protocol of Birman, Schiper and Stephenson. Entry {@code k} of the vector
+ * timestamp counts broadcasts of the process {@code k}, so message from the process {@code j} is
+ * deliverable once all previous broadcasts of {@code j} and all messages delivered by {@code j}
+ * before the broadcast are delivered locally. Messages received out of causal order are held back
+ * until they become deliverable.
+ *
+ * <p>
+ * Each held back message is indexed by the single entry of the delivered vector it waits for, so a
+ * delivery wakes only the messages which wait for exactly that entry value. Woken message which is
+ * still not deliverable continues scan of its vector where it stopped before, so each message costs
+ * time proportional to the vector length in total regardless of arrival order.
+ *
+ * <p>
+ * Buffer is thread safe and accepts messages from many producer threads, while consumers take
+ * delivered messages in causal order. Memory is bounded by the capacity: message which is not
+ * deliverable is accepted only while the total number of buffered messages is below the capacity
+ * and deliverable message is accepted only while the number of delivered but not yet consumed
+ * messages is below the capacity. Hence held back messages never prevent acceptance of the
+ * messages they wait for. Duplicates of already delivered messages are ignored.
+ *
+ * <p>
+ * Local broadcasts should be stamped with {@link #nextBroadcastTimestamp()}, which counts them as
+ * delivered locally. Timestamps of {@link VectorClock} are not suitable here, because its entries
+ * count receive events as well.
+ *
+ * @param <M> type of messages
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp
+ */
+public final class CausalDeliveryBuffer<M> {
+
+  private final int processIndex;
+  private final int capacity;
+  private final long[] delivered;
+  private final List<Map<Long, Pending<M>>> waiting;
+  private final ArrayDeque<M> deliverable = new ArrayDeque<>();
+  private int heldBackCount;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  /**
+   * Creates instance of causal delivery buffer with the given local process index, the number of
+   * processes in a distributed system and capacity.
+   */
+  public CausalDeliveryBuffer(int processIndex, int processCount, int capacity) {
+    this(processIndex, new VectorTimestamp(processCount), capacity);
+  }
+
+  /**
+   * Creates instance of causal delivery buffer with the given local process index, timestamp of
+   * messages which are considered delivered initially and capacity.
+   */
+  public CausalDeliveryBuffer(int processIndex, VectorTimestamp initialTimestamp, int capacity) {
+    if (processIndex < 0 || processIndex >= initialTimestamp.length())
+      throw new IllegalArgumentException("Index out of bounds.");
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Capacity should be positive.");
+    this.processIndex = processIndex;
+    this.capacity = capacity;
+    this.delivered = initialTimestamp.toLongs();
+    this.waiting = new ArrayList<>(delivered.length);
+    for (int i = 0; i < delivered.length; i++) {
+      waiting.add(new HashMap<Long, Pending<M>>());
+    }
+  }
+
+  /**
+   * Returns timestamp of all messages delivered so far including local broadcasts.
+   */
+  public VectorTimestamp delivered() {
+    lock.lock();
+    try {
+      return VectorTimestamp.fromLongs(delivered);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns timestamp for the next local broadcast and counts it as delivered locally.
+   *
+   * @return Timestamp which should be attached to the broadcast message.
+   */
+  public VectorTimestamp nextBroadcastTimestamp() {
+    lock.lock();
+    try {
+      ArrayDeque<Pending<M>> unblocked = new ArrayDeque<>();
+      advance(processIndex, unblocked);
+      VectorTimestamp timestamp = VectorTimestamp.fromLongs(delivered);
+      deliverUnblocked(unblocked);
+      return timestamp;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Accepts message received from the given process if it is possible without waiting.
+   *
+   * @param senderIndex index of the process which broadcast the message
+   * @param timestamp timestamp of the message given by the sender
+   * @param message received message
+   * @return {@code true} if the message was accepted and {@code false} if the buffer is full.
+   */
+  public boolean offer(int senderIndex, VectorTimestamp timestamp, M message) {
+    Pending<M> pending = newPending(senderIndex, timestamp, message);
+    lock.lock();
+    try {
+      if (isFull(pending))
+        return false;
+      accept(pending);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Accepts message received from the given process waiting up to the given time if the buffer is
+   * full.
+   *
+   * @param senderIndex index of the process which broadcast the message
+   * @param timestamp timestamp of the message given by the sender
+   * @param message received message
+   * @param timeout how long to wait before giving up
+   * @param unit unit of the timeout
+   * @return {@code true} if the message was accepted and {@code false} if the buffer stayed full.
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean offer(int senderIndex, VectorTimestamp timestamp, M message, long timeout,
+      TimeUnit unit) throws InterruptedException {
+    Pending<M> pending = newPending(senderIndex, timestamp, message);
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (isFull(pending)) {
+        if (nanos <= 0)
+          return false;
+        nanos = notFull.awaitNanos(nanos);
+      }
+      accept(pending);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Accepts message received from the given process waiting while the buffer is full.
+   *
+   * @param senderIndex index of the process which broadcast the message
+   * @param timestamp timestamp of the message given by the sender
+   * @param message received message
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void put(int senderIndex, VectorTimestamp timestamp, M message)
+      throws InterruptedException {
+    Pending<M> pending = newPending(senderIndex, timestamp, message);
+    lock.lockInterruptibly();
+    try {
+      while (isFull(pending)) {
+        notFull.await();
+      }
+      accept(pending);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves and removes next delivered message or returns {@code null} if there is none.
+   */
+  public M poll() {
+    lock.lock();
+    try {
+      return deliverable.isEmpty() ? null : consume();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves and removes next delivered message waiting up to the given time if there is none.
+   *
+   * @return Delivered message or {@code null} if none was delivered in time.
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public M poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (deliverable.isEmpty()) {
+        if (nanos <= 0)
+          return null;
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return consume();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves and removes next delivered message waiting if there is none.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public M take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (deliverable.isEmpty()) {
+        notEmpty.await();
+      }
+      return consume();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes all delivered messages and adds them to the given collection in delivery order.
+   *
+   * @return Number of moved messages.
+   */
+  public int drainTo(Collection<? super M> collection) {
+    lock.lock();
+    try {
+      int count = deliverable.size();
+      collection.addAll(deliverable);
+      deliverable.clear();
+      if (count > 0) {
+        notFull.signalAll();
+      }
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns number of delivered messages which were not consumed yet.
+   */
+  public int deliverableCount() {
+    lock.lock();
+    try {
+      return deliverable.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns number of messages which are held back until delivery of the messages they depend on.
+   */
+  public int heldBackCount() {
+    lock.lock();
+    try {
+      return heldBackCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Pending<M> newPending(int senderIndex, VectorTimestamp timestamp, M message) {
+    if (senderIndex < 0 || senderIndex >= delivered.length || senderIndex == processIndex)
+      throw new IllegalArgumentException("Sender index should refer to another process.");
+    if (message == null)
+      throw new IllegalArgumentException("Message should not be null.");
+    if (timestamp.length() != delivered.length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    return new Pending<>(senderIndex, timestamp.entries(), message);
+  }
+
+  private boolean isFull(Pending<M> pending) {
+    if (isDelivered(pending))
+      return false;
+    if (findBlocker(pending) < 0)
+      return deliverable.size() >= capacity;
+    return deliverable.size() + heldBackCount >= capacity;
+  }
+
+  private void accept(Pending<M> pending) {
+    if (isDelivered(pending))
+      return;
+    int blocker = findBlocker(pending);
+    if (blocker >= 0) {
+      holdBack(pending, blocker);
+    } else {
+      deliver(pending);
+    }
+  }
+
+  private boolean isDelivered(Pending<M> pending) {
+    int sender = pending.senderIndex;
+    return LogicalTimestamp.compare(pending.timestamps[sender], delivered[sender]) <= 0;
+  }
+
+  /**
+   * Returns index of the delivered vector entry which prevents delivery of the given message or -1
+   * if the message is deliverable. Entries which are found satisfied are not checked again, since
+   * delivered vector only grows.
+   */
+  private int findBlocker(Pending<M> pending) {
+    int sender = pending.senderIndex;
+    if (pending.timestamps[sender] != delivered[sender] + 1)
+      return sender;
+    for (; pending.checkedIndex < delivered.length; pending.checkedIndex++) {
+      int i = pending.checkedIndex;
+      if (i != sender && LogicalTimestamp.compare(pending.timestamps[i], delivered[i]) > 0)
+        return i;
+    }
+    return -1;
+  }
+
+  private void holdBack(Pending<M> pending, int blocker) {
+    // Message waits until the blocking entry reaches the value it needs; for the sender entry it is
+    // the value right before the message itself
+    long awaited = pending.timestamps[blocker];
+    if (blocker == pending.senderIndex) {
+      awaited--;
+    }
+    Map<Long, Pending<M>> awaiting = waiting.get(blocker);
+    pending.next = awaiting.put(awaited, pending);
+    heldBackCount++;
+  }
+
+  private void deliver(Pending<M> first) {
+    ArrayDeque<Pending<M>> unblocked = new ArrayDeque<>();
+    unblocked.push(first);
+    deliverUnblocked(unblocked);
+  }
+
+  private void deliverUnblocked(ArrayDeque<Pending<M>> unblocked) {
+    int heldBackBefore = heldBackCount;
+    boolean anyDelivered = false;
+    while (!unblocked.isEmpty()) {
+      Pending<M> pending = unblocked.pop();
+      // Duplicate could be unblocked together with the original message
+      if (isDelivered(pending))
+        continue;
+      deliverable.add(pending.message);
+      anyDelivered = true;
+      advance(pending.senderIndex, unblocked);
+    }
+    if (anyDelivered) {
+      notEmpty.signalAll();
+    }
+    if (heldBackCount < heldBackBefore) {
+      notFull.signalAll();
+    }
+  }
+
+  /**
+   * Increments the given entry of the delivered vector and re-checks messages which wait for it.
+   */
+  private void advance(int index, ArrayDeque<Pending<M>> unblocked) {
+    delivered[index]++;
+    Pending<M> woken = waiting.get(index).remove(delivered[index]);
+    while (woken != null) {
+      Pending<M> next = woken.next;
+      woken.next = null;
+      heldBackCount--;
+      if (!isDelivered(woken)) {
+        int blocker = findBlocker(woken);
+        if (blocker >= 0) {
+          holdBack(woken, blocker);
+        } else {
+          unblocked.push(woken);
+        }
+      }
+      woken = next;
+    }
+  }
+
+  private M consume() {
+    M message = deliverable.poll();
+    notFull.signalAll();
+    return message;
+  }
+
+  /**
+   * Message held back in the buffer. Messages waiting for the same entry value are chained in a
+   * singly linked list.
+   */
+  private static final class Pending<M> {
+    private final int senderIndex;
+    private final long[] timestamps;
+    private final M message;
+    private int checkedIndex;
+    private Pending<M> next;
+
+    private Pending(int senderIndex, long[] timestamps, M message) {
+      this.senderIndex = senderIndex;
+      this.timestamps = timestamps;
+      this.message = message;
+    }
+  }
+}
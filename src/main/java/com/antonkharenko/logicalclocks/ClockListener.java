@@ -0,0 +1,44 @@
+package com.antonkharenko.logicalclocks;
+
+/**
+ * Receives notifications about internal behavior of clocks, e.g. to collect metrics. Listener is
+ * optional and clocks created without it don't pay for notifications. Methods are called
+ * synchronously from the threads which update the clock, so implementations should be thread safe
+ * and cheap.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.ClockStatistics
+ */
+public interface ClockListener {
+
+  /**
+   * Called when update of the clock had to be retried because of concurrent updates.
+   *
+   * @param retries number of failed attempts to update the clock
+   */
+  void onContention(int retries);
+
+  /**
+   * Called when the clock merged received timestamp.
+   *
+   * @param advance how far merge moved the clock beyond a local tick, i.e. for logical clocks
+   *        difference between the merged value and the previous value incremented by one and for
+   *        vector clocks sum of such differences over entries of other processes; {@code 0} if the
+   *        clock was not behind the received timestamp
+   */
+  void onMerge(long advance);
+
+  /**
+   * Called when the clock received vector timestamp or delta of it.
+   *
+   * @param entries number of entries in the received vector or delta
+   */
+  void onVectorReceived(int entries);
+
+  /**
+   * Called when the clock produced vector timestamp delta to send.
+   *
+   * @param entries number of entries in the produced delta
+   */
+  void onVectorSent(int entries);
+}
@@ -0,0 +1,162 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link ClockListener} which accumulates counters. It is thread safe and can be
+ * shared between several clocks.
+ *
+ * @author Anton Kharenko
+ */
+public class ClockStatistics implements ClockListener {
+
+  private final AtomicLong contentions = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong maxRetries = new AtomicLong();
+  private final AtomicLong merges = new AtomicLong();
+  private final AtomicLong advancingMerges = new AtomicLong();
+  private final AtomicLong totalAdvance = new AtomicLong();
+  private final AtomicLong maxAdvance = new AtomicLong();
+  private final AtomicLong receivedVectors = new AtomicLong();
+  private final AtomicLong receivedEntries = new AtomicLong();
+  private final AtomicLong maxReceivedEntries = new AtomicLong();
+  private final AtomicLong sentVectors = new AtomicLong();
+  private final AtomicLong sentEntries = new AtomicLong();
+
+  @Override
+  public void onContention(int retries) {
+    this.contentions.incrementAndGet();
+    this.retries.addAndGet(retries);
+    updateMax(maxRetries, retries);
+  }
+
+  @Override
+  public void onMerge(long advance) {
+    merges.incrementAndGet();
+    if (advance > 0) {
+      advancingMerges.incrementAndGet();
+      totalAdvance.addAndGet(advance);
+      updateMax(maxAdvance, advance);
+    }
+  }
+
+  @Override
+  public void onVectorReceived(int entries) {
+    receivedVectors.incrementAndGet();
+    receivedEntries.addAndGet(entries);
+    updateMax(maxReceivedEntries, entries);
+  }
+
+  @Override
+  public void onVectorSent(int entries) {
+    sentVectors.incrementAndGet();
+    sentEntries.addAndGet(entries);
+  }
+
+  /**
+   * Returns number of clock updates which were retried at least once.
+   */
+  public long contentions() {
+    return contentions.get();
+  }
+
+  /**
+   * Returns total number of retried attempts to update the clock.
+   */
+  public long retries() {
+    return retries.get();
+  }
+
+  /**
+   * Returns the biggest number of retries of a single clock update.
+   */
+  public long maxRetries() {
+    return maxRetries.get();
+  }
+
+  /**
+   * Returns number of merges of received timestamps.
+   */
+  public long merges() {
+    return merges.get();
+  }
+
+  /**
+   * Returns number of merges which moved the clock beyond a local tick.
+   */
+  public long advancingMerges() {
+    return advancingMerges.get();
+  }
+
+  /**
+   * Returns total advance of the clock by merges.
+   *
+   * @see ClockListener#onMerge(long)
+   */
+  public long totalAdvance() {
+    return totalAdvance.get();
+  }
+
+  /**
+   * Returns the biggest advance of the clock by a single merge.
+   *
+   * @see ClockListener#onMerge(long)
+   */
+  public long maxAdvance() {
+    return maxAdvance.get();
+  }
+
+  /**
+   * Returns number of received vector timestamps and deltas.
+   */
+  public long receivedVectors() {
+    return receivedVectors.get();
+  }
+
+  /**
+   * Returns total number of entries in received vector timestamps and deltas.
+   */
+  public long receivedEntries() {
+    return receivedEntries.get();
+  }
+
+  /**
+   * Returns the biggest number of entries in a single received vector timestamp or delta.
+   */
+  public long maxReceivedEntries() {
+    return maxReceivedEntries.get();
+  }
+
+  /**
+   * Returns number of produced vector timestamp deltas.
+   */
+  public long sentVectors() {
+    return sentVectors.get();
+  }
+
+  /**
+   * Returns total number of entries in produced vector timestamp deltas.
+   */
+  public long sentEntries() {
+    return sentEntries.get();
+  }
+
+  private static void updateMax(AtomicLong max, long value) {
+    long previous;
+    do {
+      previous = max.get();
+      if (previous >= value)
+        return;
+    } while (!max.compareAndSet(previous, value));
+  }
+
+  @Override
+  public String toString() {
+    return "ClockStatistics{contentions=" + contentions + ", retries=" + retries + ", maxRetries="
+        + maxRetries + ", merges=" + merges + ", advancingMerges=" + advancingMerges
+        + ", totalAdvance=" + totalAdvance + ", maxAdvance=" + maxAdvance + ", receivedVectors="
+        + receivedVectors + ", receivedEntries=" + receivedEntries + ", maxReceivedEntries="
+        + maxReceivedEntries + ", sentVectors=" + sentVectors + ", sentEntries=" + sentEntries
+        + "}";
+  }
+}
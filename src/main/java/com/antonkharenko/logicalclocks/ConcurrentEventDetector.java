@@ -0,0 +1,345 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class finds pairs of concurrent events in a log of events stamped with vector timestamps.
+ * Work is split between threads of the given fork/join pool and found pairs are streamed to the
+ * {@link PairListener} instead of being collected in memory.
+ *
+ * <p>
+ * If only timestamps are known, every pair of events is checked, so work is proportional to the
+ * square of the log size. Events are sorted by the sum of vector entries, which is strictly
+ * monotone along happens before relation for non-negative entries, which makes each check cheaper:
+ * for events in sum order it is enough to look for a single entry which goes backwards, and events
+ * with equal sums are concurrent unless their timestamps are equal. If it is also known which
+ * process produced each event, candidates are pruned: events of each process are ordered by their
+ * own entry and concurrent events of another process form a contiguous range of its events, which
+ * is found with two binary searches. In this case work is proportional to the number of found pairs
+ * rather than to the square of the log size.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp
+ */
+public final class ConcurrentEventDetector {
+
+  private static final long PAIRS_THRESHOLD = 1 << 16;
+  private static final int INDEX_BITS = 32;
+  private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+  private static final int EVENTS_THRESHOLD = 1024;
+
+  /**
+   * Receives pairs of concurrent events. It is called concurrently from the threads of the pool, so
+   * it should be thread safe.
+   */
+  public interface PairListener {
+
+    /**
+     * Called for each found pair of concurrent events once.
+     *
+     * @param firstIndex smaller index of event in the log
+     * @param secondIndex bigger index of event in the log
+     */
+    void onConcurrentPair(int firstIndex, int secondIndex);
+  }
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates instance of detector which runs its tasks in the given fork/join pool.
+   */
+  public ConcurrentEventDetector(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Finds all pairs of concurrent events in the given log. All pairs of events are checked, so it
+   * takes time proportional to the square of the log size.
+   *
+   * @param events timestamps of events of the same vector length
+   * @param listener receiver of found pairs
+   * @return Number of found pairs.
+   */
+  public long findConcurrentPairs(VectorTimestamp[] events, PairListener listener) {
+    if (checkLengths(events) == 0)
+      return 0;
+    // Events are sorted by keys which pack sum above index, so sorting doesn't box indices
+    long[] keys = vectorSums(events);
+    if (keys != null) {
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = keys[i] << INDEX_BITS | i;
+      }
+      Arrays.sort(keys);
+    }
+
+    int[] indices = new int[events.length];
+    long[] sortedSums = keys != null ? new long[events.length] : null;
+    long[][] rows = new long[events.length][];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = keys != null ? (int) (keys[i] & INDEX_MASK) : i;
+      rows[i] = events[indices[i]].entries();
+      if (keys != null) {
+        sortedSums[i] = keys[i] >>> INDEX_BITS;
+      }
+    }
+    return pool.invoke(new PairsTask(rows, sortedSums, indices, 0, rows.length, listener));
+  }
+
+  /**
+   * Finds all pairs of concurrent events in the given log knowing the process of each event. Entry
+   * of the vector timestamp of the event which corresponds to its process should count the events
+   * of this process, as it happens with timestamps of {@link VectorClock}.
+   *
+   * @param events timestamps of events of the same vector length
+   * @param processIndices index of the process which produced each event
+   * @param listener receiver of found pairs
+   * @return Number of found pairs.
+   */
+  public long findConcurrentPairs(VectorTimestamp[] events, int[] processIndices,
+      PairListener listener) {
+    int vectorLength = checkLengths(events);
+    if (processIndices.length != events.length)
+      throw new IllegalArgumentException("Process indices length should match events length.");
+    List<List<Integer>> processEvents = new ArrayList<>(vectorLength);
+    for (int p = 0; p < vectorLength; p++) {
+      processEvents.add(new ArrayList<Integer>());
+    }
+    for (int i = 0; i < processIndices.length; i++) {
+      if (processIndices[i] < 0 || processIndices[i] >= vectorLength)
+        throw new IllegalArgumentException("Index out of bounds.");
+      processEvents.get(processIndices[i]).add(i);
+    }
+
+    long[][][] chains = new long[vectorLength][][];
+    int[][] chainIndices = new int[vectorLength][];
+    final VectorTimestamp[] log = events;
+    for (int p = 0; p < vectorLength; p++) {
+      final int process = p;
+      Integer[] chain = processEvents.get(p).toArray(new Integer[0]);
+      Arrays.sort(chain, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer first, Integer second) {
+          return LogicalTimestamp.compare(log[first].getAsLong(process),
+              log[second].getAsLong(process));
+        }
+      });
+      chains[p] = new long[chain.length][];
+      chainIndices[p] = new int[chain.length];
+      for (int i = 0; i < chain.length; i++) {
+        chainIndices[p][i] = chain[i];
+        chains[p][i] = events[chain[i]].entries();
+      }
+    }
+    return pool.invoke(new ChainsTask(chains, chainIndices, 0, events.length, listener));
+  }
+
+  private static int checkLengths(VectorTimestamp[] events) {
+    if (events.length == 0)
+      return 0;
+    int vectorLength = events[0].length();
+    for (VectorTimestamp event : events) {
+      if (event.length() != vectorLength)
+        throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    }
+    return vectorLength;
+  }
+
+  /**
+   * Returns sums of vector entries or null if they are not usable for ordering, because some of the
+   * entries are negative or sum doesn't fit into 31 bits, which are left for it in sort keys.
+   */
+  private static long[] vectorSums(VectorTimestamp[] events) {
+    long[] sums = new long[events.length];
+    for (int i = 0; i < events.length; i++) {
+      long sum = 0;
+      for (long entry : events[i].entries()) {
+        sum += entry;
+        if (entry < 0 || sum < 0 || sum > Integer.MAX_VALUE)
+          return null;
+      }
+      sums[i] = sum;
+    }
+    return sums;
+  }
+
+  /**
+   * Compares each row of the given range with all following rows. Range is split by the number of
+   * compared pairs, since earlier rows are compared with more rows.
+   */
+  private static final class PairsTask extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long[][] rows;
+    private final long[] sums;
+    private final int[] indices;
+    private final int from;
+    private final int to;
+    private final PairListener listener;
+
+    private PairsTask(long[][] rows, long[] sums, int[] indices, int from, int to,
+        PairListener listener) {
+      this.rows = rows;
+      this.sums = sums;
+      this.indices = indices;
+      this.from = from;
+      this.to = to;
+      this.listener = listener;
+    }
+
+    @Override
+    protected Long compute() {
+      long pairs = pairCount(from, to);
+      if (to - from > 1 && pairs > PAIRS_THRESHOLD) {
+        int middle = splitPoint(pairs);
+        PairsTask head = new PairsTask(rows, sums, indices, from, middle, listener);
+        PairsTask tail = new PairsTask(rows, sums, indices, middle, to, listener);
+        head.fork();
+        long tailCount = tail.compute();
+        return head.join() + tailCount;
+      }
+      long count = 0;
+      for (int i = from; i < to; i++) {
+        for (int j = i + 1; j < rows.length; j++) {
+          if (isConcurrent(i, j)) {
+            listener.onConcurrentPair(Math.min(indices[i], indices[j]),
+                Math.max(indices[i], indices[j]));
+            count++;
+          }
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Returns number of pairs compared for the rows of the given range.
+     */
+    private long pairCount(int start, int end) {
+      long rowCount = end - start;
+      return rowCount * (2L * rows.length - 1 - start - end) / 2;
+    }
+
+    /**
+     * Returns the first row after which at least half of the given number of pairs is compared.
+     */
+    private int splitPoint(long pairs) {
+      int low = from + 1;
+      int high = to - 1;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (2 * pairCount(from, middle) >= pairs) {
+          high = middle;
+        } else {
+          low = middle + 1;
+        }
+      }
+      return low;
+    }
+
+    private boolean isConcurrent(int i, int j) {
+      long[] first = rows[i];
+      long[] second = rows[j];
+      if (sums == null)
+        return VectorTimestamp.relationFlags(first, second) == (VectorTimestamp.BEFORE_FLAG
+            | VectorTimestamp.AFTER_FLAG);
+      if (sums[i] == sums[j])
+        return !Arrays.equals(first, second);
+      // Second event can't happen before the first one, so it is enough to find an entry where the
+      // first event is ahead
+      for (int k = 0; k < first.length; k++) {
+        if (first[k] > second[k])
+          return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * For each event of the given range finds concurrent events of processes with bigger indices.
+   */
+  private static final class ChainsTask extends RecursiveTask<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long[][][] chains;
+    private final int[][] chainIndices;
+    private final int from;
+    private final int to;
+    private final PairListener listener;
+
+    private ChainsTask(long[][][] chains, int[][] chainIndices, int from, int to,
+        PairListener listener) {
+      this.chains = chains;
+      this.chainIndices = chainIndices;
+      this.from = from;
+      this.to = to;
+      this.listener = listener;
+    }
+
+    @Override
+    protected Long compute() {
+      if (to - from > EVENTS_THRESHOLD) {
+        int middle = (from + to) >>> 1;
+        ChainsTask head = new ChainsTask(chains, chainIndices, from, middle, listener);
+        ChainsTask tail = new ChainsTask(chains, chainIndices, middle, to, listener);
+        head.fork();
+        long tailCount = tail.compute();
+        return head.join() + tailCount;
+      }
+      // Range is given over events laid out process by process in chain order
+      long count = 0;
+      int offset = 0;
+      for (int p = 0; p < chains.length && offset < to; p++) {
+        int start = Math.max(from, offset) - offset;
+        int end = Math.min(to, offset + chains[p].length) - offset;
+        for (int i = start; i < end; i++) {
+          count += findConcurrent(p, i);
+        }
+        offset += chains[p].length;
+      }
+      return count;
+    }
+
+    private long findConcurrent(int process, int position) {
+      long[] event = chains[process][position];
+      int eventIndex = chainIndices[process][position];
+      long count = 0;
+      for (int q = process + 1; q < chains.length; q++) {
+        // Events of q which don't happen before the event are those ahead of it in entry q, and
+        // events which don't happen after it are those behind it in entry of its process
+        int start = firstAhead(chains[q], q, event[q], 1);
+        int end = firstAhead(chains[q], process, event[process], 0);
+        for (int j = start; j < end; j++) {
+          int otherIndex = chainIndices[q][j];
+          listener.onConcurrentPair(Math.min(eventIndex, otherIndex),
+              Math.max(eventIndex, otherIndex));
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Returns position of the first event of the chain for which
+     * {@code LogicalTimestamp.compare(entry, value) >= bound}.
+     */
+    private static int firstAhead(long[][] chain, int entry, long value, int bound) {
+      int low = 0;
+      int high = chain.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (LogicalTimestamp.compare(chain[middle][entry], value) >= bound) {
+          high = middle;
+        } else {
+          low = middle + 1;
+        }
+      }
+      return low;
+    }
+  }
+}
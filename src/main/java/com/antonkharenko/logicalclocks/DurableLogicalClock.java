@@ -0,0 +1,204 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class implements logical clock which survives restarts of the process. It never issues a
+ * timestamp which is not after all timestamps issued by previous instances of the clock backed by
+ * the same file, so time of the node doesn't go backwards after a crash.
+ *
+ * <p>
+ * Clock reserves blocks of timestamps ahead of time: before issuing a timestamp beyond the reserved
+ * limit it writes a new limit to the memory-mapped file and forces it to the storage. Ticks within
+ * the reserved block are as fast as ticks of {@link LogicalClock}, while the storage is flushed
+ * only once per block. After restart the clock resumes from the last reserved limit, so up to one
+ * block of timestamps is skipped. Current time returned by {@link #time()} never goes beyond the
+ * reserved limit, so a value which is not durable yet is never observed, while a tick extends the
+ * reservation before it returns.
+ *
+ * <p>
+ * Mapped file is released by the garbage collector after the clock is closed, so the same file
+ * should not be opened by two clock instances at the same time.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.LogicalClock
+ */
+public class DurableLogicalClock extends LogicalClock implements Closeable {
+
+  private static final int LIMIT_OFFSET = 0;
+  private static final int FILE_SIZE = 8;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final int blockSize;
+  private final Object reserveLock = new Object();
+  private volatile long reservedLimit;
+  private boolean closed;
+
+  /**
+   * Creates instance of durable logical clock backed by the given file, which is created if it
+   * doesn't exist.
+   *
+   * @param file file to keep reserved limit of the clock
+   * @param blockSize number of timestamps to reserve at once
+   * @throws IOException if the file can not be opened or mapped
+   */
+  public DurableLogicalClock(Path file, int blockSize) throws IOException {
+    this(file, new LogicalTimestamp(), blockSize);
+  }
+
+  /**
+   * Creates instance of durable logical clock backed by the given file, which is created if it
+   * doesn't exist. Clock starts from the given initial timestamp or from the limit reserved by the
+   * previous instance of the clock, whatever happens later.
+   *
+   * @param file file to keep reserved limit of the clock
+   * @param initialTimestamp initial timestamp of the clock
+   * @param blockSize number of timestamps to reserve at once
+   * @throws IOException if the file can not be opened or mapped
+   */
+  public DurableLogicalClock(Path file, LogicalTimestamp initialTimestamp, int blockSize)
+      throws IOException {
+    this(file, initialTimestamp, blockSize, null);
+  }
+
+  /**
+   * Creates instance of durable logical clock backed by the given file with the given listener.
+   *
+   * @param file file to keep reserved limit of the clock
+   * @param initialTimestamp initial timestamp of the clock
+   * @param blockSize number of timestamps to reserve at once
+   * @param listener listener to notify about clock updates or {@code null}
+   * @throws IOException if the file can not be opened or mapped
+   * @see #DurableLogicalClock(Path, LogicalTimestamp, int)
+   */
+  public DurableLogicalClock(Path file, LogicalTimestamp initialTimestamp, int blockSize,
+      ClockListener listener) throws IOException {
+    this(checkBlockSize(blockSize), FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE), initialTimestamp, listener);
+  }
+
+  private DurableLogicalClock(int blockSize, FileChannel channel, LogicalTimestamp initialTimestamp,
+      ClockListener listener) throws IOException {
+    this(blockSize, channel, channel.size() >= FILE_SIZE, map(channel), initialTimestamp,
+        listener);
+  }
+
+  private DurableLogicalClock(int blockSize, FileChannel channel, boolean existing,
+      MappedByteBuffer buffer, LogicalTimestamp initialTimestamp, ClockListener listener) {
+    super(resumeTimestamp(existing, buffer, initialTimestamp), listener);
+    this.channel = channel;
+    this.buffer = buffer;
+    this.blockSize = blockSize;
+    // All timestamps up to the current value are either issued before restart or skipped
+    this.reservedLimit = super.timeAsLong();
+  }
+
+  private static int checkBlockSize(int blockSize) {
+    if (blockSize <= 0)
+      throw new IllegalArgumentException("Block size should be positive.");
+    return blockSize;
+  }
+
+  private static MappedByteBuffer map(FileChannel channel) throws IOException {
+    try {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static LogicalTimestamp resumeTimestamp(boolean existing, MappedByteBuffer buffer,
+      LogicalTimestamp initialTimestamp) {
+    if (!existing)
+      return initialTimestamp;
+    LogicalTimestamp reservedTimestamp = LogicalTimestamp.fromLong(buffer.getLong(LIMIT_OFFSET));
+    return reservedTimestamp.isAfter(initialTimestamp) ? reservedTimestamp : initialTimestamp;
+  }
+
+  /**
+   * Returns the last timestamp reserved in the file. The clock doesn't issue timestamps after it
+   * without extending the reservation first.
+   */
+  public LogicalTimestamp reservedTime() {
+    return LogicalTimestamp.fromLong(reservedLimit);
+  }
+
+  /**
+   * Returns current value of the clock as long. While a tick extends the reservation the counter
+   * may already be beyond the reserved limit, so the reserved limit is returned in this case.
+   */
+  @Override
+  public long timeAsLong() {
+    long time = super.timeAsLong();
+    long limit = reservedLimit;
+    return LogicalTimestamp.compare(time, limit) > 0 ? limit : time;
+  }
+
+  @Override
+  public long tickAsLong() {
+    return reserved(super.tickAsLong());
+  }
+
+  @Override
+  public long tickAsLong(long happensBeforeTimestamp) {
+    return reserved(super.tickAsLong(happensBeforeTimestamp));
+  }
+
+  @Override
+  public LogicalTimestampRange tick(int count) {
+    LogicalTimestampRange range = super.tick(count);
+    reserved(range.lastAsLong());
+    return range;
+  }
+
+  @Override
+  public LogicalTimestampRange tick(int count, LogicalTimestamp happensBeforeTimestamp) {
+    LogicalTimestampRange range = super.tick(count, happensBeforeTimestamp);
+    reserved(range.lastAsLong());
+    return range;
+  }
+
+  /**
+   * Returns the given timestamp once it is covered by the reserved limit.
+   */
+  private long reserved(long timestamp) {
+    if (LogicalTimestamp.compare(timestamp, reservedLimit) > 0) {
+      reserve(timestamp);
+    }
+    return timestamp;
+  }
+
+  private void reserve(long timestamp) {
+    synchronized (reserveLock) {
+      if (closed)
+        throw new IllegalStateException("Clock is closed.");
+      if (LogicalTimestamp.compare(timestamp, reservedLimit) <= 0)
+        return;
+      long limit = timestamp + blockSize;
+      buffer.putLong(LIMIT_OFFSET, limit);
+      buffer.force();
+      reservedLimit = limit;
+    }
+  }
+
+  /**
+   * Closes the backing file. Clock can issue timestamps within already reserved block after that,
+   * but throws {@link IllegalStateException} when it needs to reserve more.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (reserveLock) {
+      if (!closed) {
+        closed = true;
+        channel.close();
+      }
+    }
+  }
+}
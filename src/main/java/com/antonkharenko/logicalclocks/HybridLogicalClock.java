@@ -0,0 +1,140 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class implements hybrid logical clock abstraction. Hybrid logical clock captures causal
+ * relationships between events the same way as {@link LogicalClock}, while keeping its value
+ * close to the physical time of the events.
+ *
+ * <p>
+ * This implementation provides methods to store local timestamp and update it in a thread safe and
+ * non-blocking way. Clock value is kept in a single atomic long in the representation of
+ * {@link HybridTimestamp#toLong()} and methods which operate on long values never allocate.
+ * Physical time is taken from the pluggable {@link TimeSource}. Optional maximum drift guards the
+ * clock from being moved too far ahead of the local physical time by a received timestamp.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.HybridTimestamp
+ */
+public class HybridLogicalClock {
+
+  private final AtomicLong time = new AtomicLong();
+  private final TimeSource timeSource;
+  private final long maxDriftMillis;
+
+  /**
+   * Creates instance of hybrid logical clock backed by system time without drift limit.
+   */
+  public HybridLogicalClock() {
+    this(TimeSource.SYSTEM, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates instance of hybrid logical clock with the given time source and maximum allowed drift.
+   *
+   * @param timeSource source of physical time
+   * @param maxDriftMillis maximum number of milliseconds received timestamp may be ahead of the
+   *        local physical time
+   */
+  public HybridLogicalClock(TimeSource timeSource, long maxDriftMillis) {
+    if (maxDriftMillis < 0)
+      throw new IllegalArgumentException("Maximum drift should be non-negative.");
+    this.timeSource = timeSource;
+    this.maxDriftMillis = maxDriftMillis;
+  }
+
+  /**
+   * Returns current value of the clock.
+   */
+  public HybridTimestamp time() {
+    return HybridTimestamp.fromLong(timeAsLong());
+  }
+
+  /**
+   * Returns current value of the clock in its long representation.
+   *
+   * @see HybridTimestamp#fromLong(long)
+   */
+  public long timeAsLong() {
+    return time.get();
+  }
+
+  /**
+   * Advances the clock for a local or send event and returns newly set value of the clock.
+   *
+   * @return New value of the clock.
+   */
+  public HybridTimestamp tick() {
+    return HybridTimestamp.fromLong(tickAsLong());
+  }
+
+  /**
+   * Advances the clock for a local or send event and returns newly set value of the clock in its
+   * long representation. New value is the biggest of the current physical time and the previous
+   * value of the clock incremented by one.
+   *
+   * @return New value of the clock.
+   * @see HybridTimestamp#fromLong(long)
+   */
+  public long tickAsLong() {
+    long physicalTime = currentPhysicalTime();
+    long previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = time.get();
+      if (previousTimestamp >= physicalTime) {
+        // Clock only moves forward, so it stays ahead of the physical time once it is there
+        return time.incrementAndGet();
+      }
+      nextTimestamp = physicalTime;
+    } while (!time.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+
+  /**
+   * Advances the clock for receive event of the message with the given timestamp. Returns new value
+   * of the clock which happens after previous value of the clock and provided timestamp.
+   *
+   * @param happensBeforeTimestamp timestamp of the received message
+   * @return New value of the clock.
+   * @throws IllegalArgumentException if given timestamp exceeds maximum drift
+   */
+  public HybridTimestamp tick(HybridTimestamp happensBeforeTimestamp) {
+    return HybridTimestamp.fromLong(tickAsLong(happensBeforeTimestamp.toLong()));
+  }
+
+  /**
+   * Advances the clock for receive event of the message with the given timestamp in its long
+   * representation. New value is the biggest of the current physical time, the previous value of
+   * the clock incremented by one and the received timestamp incremented by one.
+   *
+   * @param happensBeforeTimestamp long value of timestamp of the received message
+   * @return New value of the clock.
+   * @throws IllegalArgumentException if given timestamp exceeds maximum drift
+   * @see HybridTimestamp#fromLong(long)
+   */
+  public long tickAsLong(long happensBeforeTimestamp) {
+    long physicalTime = currentPhysicalTime();
+    long drift = HybridTimestamp.physicalTime(happensBeforeTimestamp)
+        - HybridTimestamp.physicalTime(physicalTime);
+    if (drift > maxDriftMillis)
+      throw new IllegalArgumentException("Received timestamp is " + drift
+          + " ms ahead of local physical time which exceeds maximum drift of " + maxDriftMillis
+          + " ms.");
+
+    long lowerBound = Math.max(physicalTime, happensBeforeTimestamp + 1);
+    long previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = time.get();
+      if (previousTimestamp >= lowerBound) {
+        return time.incrementAndGet();
+      }
+      nextTimestamp = lowerBound;
+    } while (!time.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+
+  private long currentPhysicalTime() {
+    return timeSource.currentTimeMillis() << HybridTimestamp.LOGICAL_BITS;
+  }
+}
@@ -0,0 +1,153 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Serializable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This class represents specific time value of hybrid logical clock at the given moment of time.
+ * This class is immutable. Hybrid timestamp combines physical time in milliseconds with a logical
+ * counter, so similarly to {@link LogicalTimestamp} it obeys causality, while staying close to the
+ * physical time of the event. It allows to use timestamps for queries like "events in the last
+ * 5 seconds" or to bound staleness of the data.
+ *
+ * <p>
+ * Timestamp is packed into a single long value: upper 48 bits keep physical time in milliseconds
+ * and lower 16 bits keep logical counter, so timestamps are ordered by their long values. If more
+ * than 65535 events happen within the same millisecond, logical counter overflows into physical
+ * part which makes timestamp run ahead of physical time until physical time catches up.
+ *
+ * <p>
+ * See also Sandeep Kulkarni et al. paper <a
+ * href="http://www.cse.buffalo.edu/tech-reports/2014-04.pdf">Logical Physical Clocks and Consistent
+ * Snapshots in Globally Distributed Databases</a> for more info.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.HybridLogicalClock
+ */
+public final class HybridTimestamp implements Comparable<HybridTimestamp>, Serializable {
+
+  private static final long serialVersionUID = -3410395567617425096L;
+
+  /**
+   * Number of lower bits taken by logical counter.
+   */
+  static final int LOGICAL_BITS = 16;
+
+  private static final long LOGICAL_MASK = (1L << LOGICAL_BITS) - 1;
+
+  private final long time;
+
+  /**
+   * Creates instance of hybrid timestamp at the initial moment of time.
+   */
+  public HybridTimestamp() {
+    this(0L);
+  }
+
+  private HybridTimestamp(long time) {
+    this.time = time;
+  }
+
+  /**
+   * Creates hybrid timestamp with the given physical time and logical counter.
+   *
+   * @param physicalTime physical time in milliseconds since the epoch
+   * @param logicalCounter logical counter in the range [0, 65535]
+   */
+  public static HybridTimestamp of(long physicalTime, int logicalCounter) {
+    if (physicalTime < 0 || physicalTime >>> (Long.SIZE - 1 - LOGICAL_BITS) != 0)
+      throw new IllegalArgumentException("Physical time is out of range.");
+    if (logicalCounter < 0 || logicalCounter > LOGICAL_MASK)
+      throw new IllegalArgumentException("Logical counter is out of range.");
+    return new HybridTimestamp(physicalTime << LOGICAL_BITS | logicalCounter);
+  }
+
+  /**
+   * Converts given long value into corresponding hybrid timestamp. It is supposed that given long
+   * was produced by {@link HybridTimestamp#toLong()} method.
+   */
+  public static HybridTimestamp fromLong(long longValue) {
+    return new HybridTimestamp(longValue);
+  }
+
+  /**
+   * Converts this timestamp into a long value. It can be converted back by
+   * {@link HybridTimestamp#fromLong(long)} method.
+   */
+  public long toLong() {
+    return time;
+  }
+
+  /**
+   * Returns physical time part of this timestamp in milliseconds since the epoch.
+   */
+  public long physicalTime() {
+    return physicalTime(time);
+  }
+
+  /**
+   * Returns logical counter part of this timestamp.
+   */
+  public int logicalCounter() {
+    return (int) (time & LOGICAL_MASK);
+  }
+
+  /**
+   * Returns physical time part of the given long representation of hybrid timestamp.
+   */
+  static long physicalTime(long time) {
+    return time >>> LOGICAL_BITS;
+  }
+
+  /**
+   * Returns true if the given timestamp is smaller than this timestamp.
+   */
+  public boolean isBefore(HybridTimestamp timestamp) {
+    return compareTo(timestamp) < 0;
+  }
+
+  /**
+   * Returns true if the given timestamp is bigger than this timestamp.
+   */
+  public boolean isAfter(HybridTimestamp timestamp) {
+    return compareTo(timestamp) > 0;
+  }
+
+  /**
+   * Compares two hybrid timestamps.
+   *
+   * @param that the hybrid timestamp to be compared.
+   * @return the value {@code 0} if this timestamp is happens at same time to the argument
+   *         timestamp; a value less than {@code 0} if this timestamp is smaller than the argument
+   *         timestamp; and a value greater than {@code 0} if this timestamp is bigger than the
+   *         argument timestamp.
+   */
+  @Override
+  public int compareTo(@Nonnull HybridTimestamp that) {
+    return Long.compare(this.time, that.time);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    HybridTimestamp that = (HybridTimestamp) o;
+    return this.time == that.time;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (time ^ (time >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return physicalTime() + "." + logicalCounter();
+  }
+}
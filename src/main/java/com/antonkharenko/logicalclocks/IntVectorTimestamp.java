@@ -0,0 +1,305 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * This class represents vector timestamp with 32-bit cyclic entries backed by {@code int[]}. It
+ * takes half of the memory and wire size of {@link VectorTimestamp} and provides its basic
+ * operations. This class is immutable.
+ *
+ * <p>
+ * Entries wrap around after 2^32 increments and are compared by the sign of their 32-bit
+ * difference, the same way {@link LogicalTimestamp} compares 64-bit values. Comparison is correct
+ * as long as compared entries diverge by at most {@value #MAX_DIVERGENCE} increments, i.e. each
+ * process doesn't produce more events than that between the moments when the compared timestamps
+ * learn about its events. Use {@link VectorTimestamp} when this bound can not be guaranteed.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp
+ */
+public final class IntVectorTimestamp implements Serializable {
+
+  private static final long serialVersionUID = -3094857620144632917L;
+
+  /**
+   * Maximum divergence of compared entries for which comparison of timestamps is correct.
+   */
+  public static final int MAX_DIVERGENCE = Integer.MAX_VALUE;
+
+  private static final int ENTRY_BYTES = 4;
+  private static final int CONCURRENT_FLAGS = VectorTimestamp.BEFORE_FLAG
+      | VectorTimestamp.AFTER_FLAG;
+
+  private final int[] timestamps;
+
+  /**
+   * Creates vector timestamp of given length with default initial entries.
+   */
+  public IntVectorTimestamp(int vectorLength) {
+    timestamps = new int[vectorLength];
+  }
+
+  private IntVectorTimestamp(int[] timestamps) {
+    this.timestamps = timestamps;
+  }
+
+  /**
+   * Creates vector timestamp with the given entries.
+   */
+  public static IntVectorTimestamp fromInts(int[] values) {
+    return new IntVectorTimestamp(Arrays.copyOf(values, values.length));
+  }
+
+  /**
+   * Returns copy of the entries of this timestamp.
+   */
+  public int[] toInts() {
+    return Arrays.copyOf(timestamps, timestamps.length);
+  }
+
+  /**
+   * Creates narrow vector timestamp which keeps the lowest 32 bits of each entry of the given
+   * timestamp. Comparison of narrowed timestamps gives the same result as comparison of the given
+   * ones while their entries diverge by at most {@link #MAX_DIVERGENCE}.
+   */
+  public static IntVectorTimestamp fromVectorTimestamp(VectorTimestamp timestamp) {
+    long[] entries = timestamp.entries();
+    int[] newTimestamps = new int[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      newTimestamps[i] = (int) entries[i];
+    }
+    return new IntVectorTimestamp(newTimestamps);
+  }
+
+  /**
+   * Converts this timestamp into vector timestamp with full entries, treating entries as unsigned
+   * values. Result is exact while counters didn't wrap around yet.
+   */
+  public VectorTimestamp toVectorTimestamp() {
+    long[] entries = new long[timestamps.length];
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] = timestamps[i] & 0xFFFFFFFFL;
+    }
+    return new VectorTimestamp(entries);
+  }
+
+  /**
+   * Converts this timestamp into vector timestamp with full entries, choosing for each entry the
+   * full value which is the closest to the corresponding entry of the given reference timestamp,
+   * e.g. the current time of the local clock. Result is exact while entries diverge from the
+   * reference by at most {@link #MAX_DIVERGENCE}.
+   */
+  public VectorTimestamp toVectorTimestamp(VectorTimestamp reference) {
+    if (timestamps.length != reference.length())
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    long[] referenceEntries = reference.entries();
+    long[] entries = new long[timestamps.length];
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] = referenceEntries[i] + (timestamps[i] - (int) referenceEntries[i]);
+    }
+    return new VectorTimestamp(entries);
+  }
+
+  /**
+   * Converts given byte array into corresponding vector timestamp. It is supposed that given byte
+   * array was produced by {@link IntVectorTimestamp#toBytes()} method.
+   */
+  public static IntVectorTimestamp fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    IntVectorTimestamp timestamp = readFrom(buffer);
+    if (buffer.hasRemaining())
+      throw new IllegalArgumentException("Unexpected bytes after encoded vector timestamp.");
+    return timestamp;
+  }
+
+  /**
+   * Converts this timestamp into a byte array representation. It can be converted back by
+   * {@link IntVectorTimestamp#fromBytes(byte[])} method.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Reads vector timestamp starting at the current position of the given buffer and advances its
+   * position. It is supposed that timestamp was written by {@link #writeTo(ByteBuffer)} method.
+   *
+   * @throws IllegalArgumentException if buffer contains malformed vector timestamp
+   */
+  public static IntVectorTimestamp readFrom(ByteBuffer buffer) {
+    int vectorLength = VarInts.readNonNegativeInt(buffer);
+    if (vectorLength > buffer.remaining() / ENTRY_BYTES)
+      throw new IllegalArgumentException("Malformed vector timestamp length.");
+    boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    int[] timestamps = new int[vectorLength];
+    for (int i = 0; i < vectorLength; i++) {
+      int value = buffer.getInt();
+      timestamps[i] = bigEndian ? value : Integer.reverseBytes(value);
+    }
+    return new IntVectorTimestamp(timestamps);
+  }
+
+  /**
+   * Writes this timestamp at the current position of the given buffer and advances its position.
+   * Entries are written with fixed width in big-endian order regardless of the byte order of the
+   * buffer. Number of written bytes is equal to {@link #serializedSize()}.
+   *
+   * @throws java.nio.BufferOverflowException if there is insufficient space in the buffer
+   */
+  public void writeTo(ByteBuffer buffer) {
+    VarInts.write(buffer, timestamps.length);
+    boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    for (int timestamp : timestamps) {
+      buffer.putInt(bigEndian ? timestamp : Integer.reverseBytes(timestamp));
+    }
+  }
+
+  /**
+   * Returns number of bytes taken by binary representation of this timestamp.
+   *
+   * @see #writeTo(ByteBuffer)
+   */
+  public int serializedSize() {
+    return VarInts.sizeOf(timestamps.length) + timestamps.length * ENTRY_BYTES;
+  }
+
+  /**
+   * Returns the number of entries in this vector timestamp.
+   */
+  public int length() {
+    return timestamps.length;
+  }
+
+  /**
+   * Returns entry with the given index.
+   */
+  public int get(int index) {
+    if (index < 0 || index >= timestamps.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    return timestamps[index];
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to current timestamp taking into
+   * account given local process id.
+   */
+  public IntVectorTimestamp nextTimestamp(int localIndex) {
+    if (localIndex < 0 || localIndex >= timestamps.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+
+    int[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
+    newTimestamps[localIndex]++;
+
+    return new IntVectorTimestamp(newTimestamps);
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to both given timestamp and current
+   * timestamp taking into account given local process id.
+   */
+  public IntVectorTimestamp nextTimestamp(int localIndex,
+      IntVectorTimestamp happensBeforeTimestamp) {
+    if (localIndex < 0 || localIndex >= timestamps.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    if (timestamps.length != happensBeforeTimestamp.timestamps.length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+
+    int[] thatTimestamps = happensBeforeTimestamp.timestamps;
+    int[] newTimestamps = new int[timestamps.length];
+    for (int i = 0; i < newTimestamps.length; i++) {
+      int thisTime = timestamps[i];
+      int thatTime = thatTimestamps[i];
+      newTimestamps[i] = relationFlags(thisTime, thatTime) == VectorTimestamp.BEFORE_FLAG
+          ? thatTime : thisTime;
+    }
+    newTimestamps[localIndex] = timestamps[localIndex] + 1;
+
+    return new IntVectorTimestamp(newTimestamps);
+  }
+
+  /**
+   * Returns true if current timestamp happens before given timestamp.
+   *
+   * @see VectorTimestamp#isHappensBefore(VectorTimestamp)
+   */
+  public boolean isHappensBefore(IntVectorTimestamp that) {
+    return compare(that) == Relation.HAPPENS_BEFORE;
+  }
+
+  /**
+   * Returns true if current timestamp happens after given timestamp.
+   *
+   * @see VectorTimestamp#isHappensAfter(VectorTimestamp)
+   */
+  public boolean isHappensAfter(IntVectorTimestamp that) {
+    return compare(that) == Relation.HAPPENS_AFTER;
+  }
+
+  /**
+   * Returns true if current timestamp happens concurrently with given timestamp.
+   *
+   * @see VectorTimestamp#isConcurrent(VectorTimestamp)
+   */
+  public boolean isConcurrent(IntVectorTimestamp that) {
+    return compare(that) == Relation.CONCURRENT;
+  }
+
+  /**
+   * Compares two vector timestamps and defines relation between them. Result is correct while
+   * corresponding entries diverge by at most {@link #MAX_DIVERGENCE}.
+   *
+   * @param that given vector timestamp to compare
+   * @return {@code Relation} between current timestamp and the given one.
+   * @see com.antonkharenko.logicalclocks.Relation
+   */
+  public Relation compare(IntVectorTimestamp that) {
+    if (timestamps.length != that.timestamps.length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+
+    int[] thatTimestamps = that.timestamps;
+    int flags = 0;
+    for (int i = 0; i < timestamps.length && flags != CONCURRENT_FLAGS; i++) {
+      flags |= relationFlags(timestamps[i], thatTimestamps[i]);
+    }
+    return VectorTimestamp.relation(flags);
+  }
+
+  /**
+   * Returns {@link VectorTimestamp#BEFORE_FLAG}, {@link VectorTimestamp#AFTER_FLAG} or zero
+   * depending on the sign of the 32-bit difference of the given values. Values which are exactly
+   * half of the cycle apart are considered to be equal as in {@link LogicalTimestamp}.
+   */
+  private static int relationFlags(int thisTime, int thatTime) {
+    int difference = thisTime - thatTime;
+    if (difference == 0 || difference == Integer.MIN_VALUE)
+      return 0;
+    return difference < 0 ? VectorTimestamp.BEFORE_FLAG : VectorTimestamp.AFTER_FLAG;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    IntVectorTimestamp that = (IntVectorTimestamp) o;
+    return Arrays.equals(timestamps, that.timestamps);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(timestamps);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(timestamps);
+  }
+}
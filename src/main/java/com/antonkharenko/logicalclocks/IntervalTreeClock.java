@@ -0,0 +1,109 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class implements Interval Tree Clock abstraction. Interval Tree Clock is a mechanism for
+ * capturing causal relationships between events which, in compare to {@link VectorClock}, supports
+ * dynamic number of participants. New participant is created by forking identity of an existing
+ * clock and retired participant returns its identity by joining it back, so no global process ids
+ * are needed.
+ *
+ * <p>
+ * This implementation provides methods to store and update local stamp in a thread safe and
+ * non-blocking way.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.IntervalTreeTimestamp
+ */
+public class IntervalTreeClock {
+
+  private final AtomicReference<IntervalTreeTimestamp> timeReference = new AtomicReference<>();
+
+  /**
+   * Creates instance of Interval Tree Clock with seed stamp which owns the whole id interval.
+   */
+  public IntervalTreeClock() {
+    this(new IntervalTreeTimestamp());
+  }
+
+  /**
+   * Creates instance of Interval Tree Clock with the given initial stamp, e.g. one obtained by
+   * {@link #fork()} of another clock.
+   */
+  public IntervalTreeClock(IntervalTreeTimestamp initialTimestamp) {
+    if (initialTimestamp.isAnonymous())
+      throw new IllegalArgumentException("Clock requires non-anonymous stamp.");
+    this.timeReference.set(initialTimestamp);
+  }
+
+  /**
+   * Returns current value of the clock.
+   */
+  public IntervalTreeTimestamp time() {
+    return timeReference.get();
+  }
+
+  /**
+   * Registers new event and returns newly set value of the clock. Anonymous {@link
+   * IntervalTreeTimestamp#peek()} of the returned stamp is supposed to be attached to messages.
+   *
+   * @return New value of the clock.
+   */
+  public IntervalTreeTimestamp tick() {
+    IntervalTreeTimestamp previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = timeReference.get();
+      nextTimestamp = previousTimestamp.nextTimestamp();
+    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+
+  /**
+   * Registers new event taking into account that provided stamp happens before that moment. Returns
+   * new value of the clock which happens after previous value of the clock and provided stamp.
+   *
+   * @param happensBeforeTimestamp stamp value which happens in the past
+   * @return New value of the clock.
+   */
+  public IntervalTreeTimestamp tick(IntervalTreeTimestamp happensBeforeTimestamp) {
+    IntervalTreeTimestamp previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = timeReference.get();
+      nextTimestamp = previousTimestamp.nextTimestamp(happensBeforeTimestamp);
+    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+
+  /**
+   * Splits identity of this clock and returns stamp for a new participant. The clock keeps the
+   * other part of its identity.
+   *
+   * @return Stamp of the new participant.
+   */
+  public IntervalTreeTimestamp fork() {
+    IntervalTreeTimestamp previousTimestamp;
+    IntervalTreeTimestamp[] forkedTimestamps;
+    do {
+      previousTimestamp = timeReference.get();
+      forkedTimestamps = previousTimestamp.fork();
+    } while (!timeReference.compareAndSet(previousTimestamp, forkedTimestamps[0]));
+    return forkedTimestamps[1];
+  }
+
+  /**
+   * Joins identity and causal history of the retired participant into this clock. Retired stamp
+   * should not be used after that.
+   *
+   * @param retiredTimestamp last stamp of the retired participant
+   * @return New value of the clock.
+   */
+  public IntervalTreeTimestamp join(IntervalTreeTimestamp retiredTimestamp) {
+    IntervalTreeTimestamp previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = timeReference.get();
+      nextTimestamp = previousTimestamp.join(retiredTimestamp);
+    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+}
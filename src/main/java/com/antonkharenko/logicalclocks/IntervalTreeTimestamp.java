@@ -0,0 +1,620 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * This class represents stamp of Interval Tree Clock at the given moment of time. This class is
+ * immutable. Similarly to {@link VectorTimestamp} it can identify concurrent events, but it doesn't
+ * require globally unique process ids. Instead each participant owns a part of the unit interval
+ * (id tree), which is split on {@link #fork()} and merged back on {@link #join} when participant
+ * retires, so space taken by the stamp is bounded by the number of live participants rather than
+ * all participants which ever existed.
+ *
+ * <p>
+ * Stamp consists of id tree and event tree. Anonymous stamps (see {@link #peek()}) have empty id
+ * and can only be used to carry causal history in messages, but can't register new events.
+ * Event counters are non-negative and don't wrap around.
+ *
+ * <p>
+ * See also Paulo Sergio Almeida, Carlos Baquero and Victor Fonte paper <a
+ * href="http://gsd.di.uminho.pt/members/cbm/ps/itc2008.pdf">Interval Tree Clocks: A Logical Clock
+ * for Dynamic Systems</a> for more info.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.IntervalTreeClock
+ */
+public final class IntervalTreeTimestamp implements Serializable {
+
+  private static final long serialVersionUID = 6082117367618213581L;
+
+  /**
+   * Maximum depth of the trees accepted by {@link #readFrom(ByteBuffer)}.
+   */
+  private static final int MAX_DEPTH = 4096;
+
+  private final Id id;
+  private final Event event;
+
+  /**
+   * Creates seed stamp which owns the whole id interval and has no events registered.
+   */
+  public IntervalTreeTimestamp() {
+    this(Id.ONE, Event.ZERO);
+  }
+
+  private IntervalTreeTimestamp(Id id, Event event) {
+    this.id = id;
+    this.event = event;
+  }
+
+  /**
+   * Returns true if this stamp has no id and can't register new events.
+   */
+  public boolean isAnonymous() {
+    return id == Id.ZERO;
+  }
+
+  /**
+   * Splits identity of this stamp into two stamps with the same causal history. Each of them can be
+   * given to a separate participant, while this stamp should not be used to register events
+   * anymore.
+   *
+   * @return Array of two forked stamps.
+   */
+  public IntervalTreeTimestamp[] fork() {
+    Id[] ids = id.split();
+    return new IntervalTreeTimestamp[] {
+        new IntervalTreeTimestamp(ids[0], event), new IntervalTreeTimestamp(ids[1], event)};
+  }
+
+  /**
+   * Returns anonymous stamp with the causal history of this stamp. It is supposed to be attached to
+   * messages.
+   */
+  public IntervalTreeTimestamp peek() {
+    return new IntervalTreeTimestamp(Id.ZERO, event);
+  }
+
+  /**
+   * Merges this stamp with the given one. Resulting stamp owns identities of both stamps and
+   * happens after or equal to both of them. Stamps should not have overlapping identities, e.g.
+   * joined stamp may be either anonymous or obtained by {@link #fork()}.
+   *
+   * @throws IllegalArgumentException if identities of stamps overlap
+   */
+  public IntervalTreeTimestamp join(IntervalTreeTimestamp that) {
+    return new IntervalTreeTimestamp(Id.sum(this.id, that.id), Event.join(this.event, that.event));
+  }
+
+  /**
+   * Returns new stamp which is in happens after relation to current stamp. It inflates event tree
+   * within the interval owned by this stamp trying to keep the tree as simple as possible.
+   *
+   * @throws IllegalStateException if this stamp is anonymous
+   */
+  public IntervalTreeTimestamp nextTimestamp() {
+    if (isAnonymous())
+      throw new IllegalStateException("Anonymous stamp can't register events.");
+    Event filled = Event.fill(id, event);
+    if (!filled.equals(event)) {
+      return new IntervalTreeTimestamp(id, filled);
+    }
+    return new IntervalTreeTimestamp(id, Event.grow(id, event).event);
+  }
+
+  /**
+   * Returns new stamp which is in happens after relation to both given stamp and current stamp.
+   * It is equivalent to the event registered after join with anonymous peek of the given stamp.
+   *
+   * @throws IllegalStateException if this stamp is anonymous
+   */
+  public IntervalTreeTimestamp nextTimestamp(IntervalTreeTimestamp happensBeforeTimestamp) {
+    return new IntervalTreeTimestamp(id, Event.join(event, happensBeforeTimestamp.event))
+        .nextTimestamp();
+  }
+
+  /**
+   * Returns true if causal history of this stamp is included into causal history of the given
+   * stamp, i.e. this stamp either happens before or is equal to the given one.
+   */
+  public boolean leq(IntervalTreeTimestamp that) {
+    return Event.leq(this.event, 0, that.event, 0);
+  }
+
+  /**
+   * Returns true if current stamp happens before given stamp and stamps are in a causal relation.
+   */
+  public boolean isHappensBefore(IntervalTreeTimestamp that) {
+    return compare(that) == Relation.HAPPENS_BEFORE;
+  }
+
+  /**
+   * Returns true if current stamp happens after given stamp and stamps are in a causal relation.
+   */
+  public boolean isHappensAfter(IntervalTreeTimestamp that) {
+    return compare(that) == Relation.HAPPENS_AFTER;
+  }
+
+  /**
+   * Returns true if current stamp happens concurrently and there is no causal relation between
+   * them.
+   */
+  public boolean isConcurrent(IntervalTreeTimestamp that) {
+    return compare(that) == Relation.CONCURRENT;
+  }
+
+  /**
+   * Compares causal histories of two stamps and defines relation between them. Identities of stamps
+   * are not taken into account.
+   *
+   * @param that given stamp to compare
+   * @return {@code Relation} between current stamp and the given one.
+   * @see com.antonkharenko.logicalclocks.Relation
+   */
+  public Relation compare(IntervalTreeTimestamp that) {
+    boolean thisLeq = this.leq(that);
+    boolean thatLeq = that.leq(this);
+    if (thisLeq && thatLeq) {
+      return Relation.EQUAL;
+    } else if (thisLeq) {
+      return Relation.HAPPENS_BEFORE;
+    } else if (thatLeq) {
+      return Relation.HAPPENS_AFTER;
+    } else {
+      return Relation.CONCURRENT;
+    }
+  }
+
+  /**
+   * Converts given byte array into corresponding stamp. It is supposed that given byte array was
+   * produced by {@link IntervalTreeTimestamp#toBytes()} method.
+   */
+  public static IntervalTreeTimestamp fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    IntervalTreeTimestamp timestamp = readFrom(buffer);
+    if (buffer.hasRemaining())
+      throw new IllegalArgumentException("Unexpected bytes after encoded stamp.");
+    return timestamp;
+  }
+
+  /**
+   * Converts this stamp into a compact byte array representation. It can be converted back by
+   * {@link IntervalTreeTimestamp#fromBytes(byte[])} method.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Reads stamp starting at the current position of the given buffer and advances its position. It
+   * is supposed that stamp was written by {@link #writeTo(ByteBuffer)} method.
+   *
+   * @throws IllegalArgumentException if buffer contains malformed stamp
+   * @throws java.nio.BufferUnderflowException if buffer ends before the end of stamp
+   */
+  public static IntervalTreeTimestamp readFrom(ByteBuffer buffer) {
+    Id id = Id.readFrom(buffer, 0);
+    Event event = Event.readFrom(buffer, 0);
+    return new IntervalTreeTimestamp(id, event);
+  }
+
+  /**
+   * Writes compact representation of this stamp at the current position of the given buffer and
+   * advances its position. Id tree is written in pre-order with one byte per node, followed by
+   * event tree in pre-order with variable length encoded counter per node. Number of written bytes
+   * is equal to {@link #serializedSize()}.
+   *
+   * @throws java.nio.BufferOverflowException if there is insufficient space in the buffer
+   */
+  public void writeTo(ByteBuffer buffer) {
+    id.writeTo(buffer);
+    event.writeTo(buffer);
+  }
+
+  /**
+   * Returns number of bytes taken by compact representation of this stamp.
+   *
+   * @see #writeTo(ByteBuffer)
+   */
+  public int serializedSize() {
+    return id.serializedSize() + event.serializedSize();
+  }
+
+  /**
+   * Stamp is serialized in its compact binary representation, since id tree leaves are singletons.
+   */
+  private Object writeReplace() {
+    return new SerializationProxy(toBytes());
+  }
+
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy is required.");
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    IntervalTreeTimestamp that = (IntervalTreeTimestamp) o;
+    return id.equals(that.id) && event.equals(that.event);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * id.hashCode() + event.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "(" + id + ", " + event + ")";
+  }
+
+  /**
+   * Normalized id tree. Leaves are either 0 or 1 and represented by singletons, while inner node
+   * never has two equal leaves as children.
+   */
+  private static final class Id {
+
+    private static final byte ZERO_TAG = 0;
+    private static final byte ONE_TAG = 1;
+    private static final byte NODE_TAG = 2;
+
+    static final Id ZERO = new Id(null, null);
+    static final Id ONE = new Id(null, null);
+
+    final Id left;
+    final Id right;
+
+    private Id(Id left, Id right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    static Id node(Id left, Id right) {
+      if (left == ZERO && right == ZERO) {
+        return ZERO;
+      } else if (left == ONE && right == ONE) {
+        return ONE;
+      } else {
+        return new Id(left, right);
+      }
+    }
+
+    boolean isLeaf() {
+      return left == null;
+    }
+
+    Id[] split() {
+      if (this == ZERO) {
+        return new Id[] {ZERO, ZERO};
+      } else if (this == ONE) {
+        return new Id[] {node(ONE, ZERO), node(ZERO, ONE)};
+      } else if (left == ZERO) {
+        Id[] split = right.split();
+        return new Id[] {node(ZERO, split[0]), node(ZERO, split[1])};
+      } else if (right == ZERO) {
+        Id[] split = left.split();
+        return new Id[] {node(split[0], ZERO), node(split[1], ZERO)};
+      } else {
+        return new Id[] {node(left, ZERO), node(ZERO, right)};
+      }
+    }
+
+    static Id sum(Id a, Id b) {
+      if (a == ZERO) {
+        return b;
+      } else if (b == ZERO) {
+        return a;
+      } else if (a.isLeaf() || b.isLeaf()) {
+        throw new IllegalArgumentException("Stamp identities overlap.");
+      } else {
+        return node(sum(a.left, b.left), sum(a.right, b.right));
+      }
+    }
+
+    static Id readFrom(ByteBuffer buffer, int depth) {
+      if (depth > MAX_DEPTH)
+        throw new IllegalArgumentException("Malformed stamp: id tree is too deep.");
+      byte tag = buffer.get();
+      if (tag == ZERO_TAG) {
+        return ZERO;
+      } else if (tag == ONE_TAG) {
+        return ONE;
+      } else if (tag == NODE_TAG) {
+        Id left = readFrom(buffer, depth + 1);
+        Id right = readFrom(buffer, depth + 1);
+        if (left.isLeaf() && left == right)
+          throw new IllegalArgumentException("Malformed stamp: id tree is not normalized.");
+        return new Id(left, right);
+      } else {
+        throw new IllegalArgumentException("Malformed stamp: unknown id tag " + tag + ".");
+      }
+    }
+
+    void writeTo(ByteBuffer buffer) {
+      if (this == ZERO) {
+        buffer.put(ZERO_TAG);
+      } else if (this == ONE) {
+        buffer.put(ONE_TAG);
+      } else {
+        buffer.put(NODE_TAG);
+        left.writeTo(buffer);
+        right.writeTo(buffer);
+      }
+    }
+
+    int serializedSize() {
+      return isLeaf() ? 1 : 1 + left.serializedSize() + right.serializedSize();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Id)) {
+        return false;
+      }
+      Id that = (Id) o;
+      return !isLeaf() && !that.isLeaf() && left.equals(that.left) && right.equals(that.right);
+    }
+
+    @Override
+    public int hashCode() {
+      if (this == ZERO) {
+        return 0;
+      } else if (this == ONE) {
+        return 1;
+      } else {
+        return 31 * left.hashCode() + right.hashCode() + 2;
+      }
+    }
+
+    @Override
+    public String toString() {
+      if (this == ZERO) {
+        return "0";
+      } else if (this == ONE) {
+        return "1";
+      } else {
+        return "(" + left + ", " + right + ")";
+      }
+    }
+  }
+
+  /**
+   * Normalized event tree. Each node has a counter relative to its parent, and inner node always
+   * has a child with zero minimum, so minimum of the tree is equal to its root counter.
+   */
+  private static final class Event {
+
+    /**
+     * Cost penalty for growing a leaf into inner node which makes simpler trees preferable.
+     */
+    private static final long EXPAND_COST = 1L << 32;
+
+    static final Event ZERO = new Event(0L, null, null);
+
+    final long value;
+    final Event left;
+    final Event right;
+
+    private Event(long value, Event left, Event right) {
+      this.value = value;
+      this.left = left;
+      this.right = right;
+    }
+
+    static Event leaf(long value) {
+      return value == 0L ? ZERO : new Event(value, null, null);
+    }
+
+    static Event node(long value, Event left, Event right) {
+      if (left.isLeaf() && right.isLeaf() && left.value == right.value) {
+        return leaf(value + left.value);
+      }
+      long min = Math.min(left.value, right.value);
+      return new Event(value + min, left.sink(min), right.sink(min));
+    }
+
+    boolean isLeaf() {
+      return left == null;
+    }
+
+    Event lift(long delta) {
+      if (delta == 0L) {
+        return this;
+      }
+      return isLeaf() ? leaf(value + delta) : new Event(value + delta, left, right);
+    }
+
+    Event sink(long delta) {
+      return lift(-delta);
+    }
+
+    long max() {
+      return isLeaf() ? value : value + Math.max(left.max(), right.max());
+    }
+
+    static Event join(Event a, Event b) {
+      if (a.isLeaf() && b.isLeaf()) {
+        return a.value >= b.value ? a : b;
+      }
+      if (a.value > b.value) {
+        Event swap = a;
+        a = b;
+        b = swap;
+      }
+      long delta = b.value - a.value;
+      Event aLeft = a.isLeaf() ? ZERO : a.left;
+      Event aRight = a.isLeaf() ? ZERO : a.right;
+      Event bLeft = b.isLeaf() ? ZERO : b.left;
+      Event bRight = b.isLeaf() ? ZERO : b.right;
+      return node(a.value, join(aLeft, bLeft.lift(delta)), join(aRight, bRight.lift(delta)));
+    }
+
+    /**
+     * Returns true if tree {@code a} lifted by {@code aOffset} is less than or equal to the tree
+     * {@code b} lifted by {@code bOffset}.
+     */
+    static boolean leq(Event a, long aOffset, Event b, long bOffset) {
+      long aValue = aOffset + a.value;
+      long bValue = bOffset + b.value;
+      if (aValue > bValue) {
+        return false;
+      } else if (a.isLeaf()) {
+        return true;
+      } else if (b.isLeaf()) {
+        return leq(a.left, aValue, b, bOffset) && leq(a.right, aValue, b, bOffset);
+      } else {
+        return leq(a.left, aValue, b.left, bValue) && leq(a.right, aValue, b.right, bValue);
+      }
+    }
+
+    static Event fill(Id id, Event event) {
+      if (id == Id.ZERO) {
+        return event;
+      } else if (id == Id.ONE) {
+        return leaf(event.max());
+      } else if (event.isLeaf()) {
+        return event;
+      } else if (id.left == Id.ONE) {
+        Event right = fill(id.right, event.right);
+        return node(event.value, leaf(Math.max(event.left.max(), right.value)), right);
+      } else if (id.right == Id.ONE) {
+        Event left = fill(id.left, event.left);
+        return node(event.value, left, leaf(Math.max(event.right.max(), left.value)));
+      } else {
+        return node(event.value, fill(id.left, event.left), fill(id.right, event.right));
+      }
+    }
+
+    static Growth grow(Id id, Event event) {
+      if (event.isLeaf()) {
+        if (id == Id.ONE) {
+          return new Growth(leaf(event.value + 1), 0L);
+        }
+        Growth growth = grow(id, new Event(event.value, ZERO, ZERO));
+        growth.cost += EXPAND_COST;
+        return growth;
+      }
+      if (id.left == Id.ZERO) {
+        Growth growth = grow(id.right, event.right);
+        growth.event = node(event.value, event.left, growth.event);
+        growth.cost++;
+        return growth;
+      } else if (id.right == Id.ZERO) {
+        Growth growth = grow(id.left, event.left);
+        growth.event = node(event.value, growth.event, event.right);
+        growth.cost++;
+        return growth;
+      }
+      Growth leftGrowth = grow(id.left, event.left);
+      Growth rightGrowth = grow(id.right, event.right);
+      if (leftGrowth.cost < rightGrowth.cost) {
+        leftGrowth.event = node(event.value, leftGrowth.event, event.right);
+        leftGrowth.cost++;
+        return leftGrowth;
+      } else {
+        rightGrowth.event = node(event.value, event.left, rightGrowth.event);
+        rightGrowth.cost++;
+        return rightGrowth;
+      }
+    }
+
+    static Event readFrom(ByteBuffer buffer, int depth) {
+      if (depth > MAX_DEPTH)
+        throw new IllegalArgumentException("Malformed stamp: event tree is too deep.");
+      long header = VarInts.read(buffer);
+      long value = header >>> 1;
+      if ((header & 1) == 0) {
+        return leaf(value);
+      }
+      Event left = readFrom(buffer, depth + 1);
+      Event right = readFrom(buffer, depth + 1);
+      return node(value, left, right);
+    }
+
+    void writeTo(ByteBuffer buffer) {
+      if (isLeaf()) {
+        VarInts.write(buffer, value << 1);
+      } else {
+        VarInts.write(buffer, value << 1 | 1);
+        left.writeTo(buffer);
+        right.writeTo(buffer);
+      }
+    }
+
+    int serializedSize() {
+      if (isLeaf()) {
+        return VarInts.sizeOf(value << 1);
+      } else {
+        return VarInts.sizeOf(value << 1 | 1) + left.serializedSize() + right.serializedSize();
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Event)) {
+        return false;
+      }
+      Event that = (Event) o;
+      if (this.value != that.value || this.isLeaf() != that.isLeaf()) {
+        return false;
+      }
+      return isLeaf() || (left.equals(that.left) && right.equals(that.right));
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = (int) (value ^ (value >>> 32));
+      return isLeaf() ? hash : 31 * (31 * hash + left.hashCode()) + right.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return isLeaf() ? Long.toString(value) : "(" + value + ", " + left + ", " + right + ")";
+    }
+  }
+
+  /**
+   * Result of growing event tree along with the cost of the growth.
+   */
+  private static final class Growth {
+
+    Event event;
+    long cost;
+
+    Growth(Event event, long cost) {
+      this.event = event;
+      this.cost = cost;
+    }
+  }
+
+  private static final class SerializationProxy implements Serializable {
+
+    private static final long serialVersionUID = -5236372051289700146L;
+
+    private final byte[] bytes;
+
+    SerializationProxy(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private Object readResolve() {
+      return fromBytes(bytes);
+    }
+  }
+}
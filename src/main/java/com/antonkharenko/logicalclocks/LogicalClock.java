@@ -1,6 +1,6 @@
 package com.antonkharenko.logicalclocks;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class implements logical clock abstraction. Logical clock is a mechanism for capturing
@@ -8,14 +8,22 @@ import java.util.concurrent.atomic.AtomicReference;
  *
  * <p>
  * This implementation provides methods to store local timestamp and update it in a thread safe and
- * non-blocking way.
+ * non-blocking way. Clock value is kept in a single atomic long in the representation of
+ * {@link LogicalTimestamp#toLong()}. Methods which operate on long values ({@link #tickAsLong()},
+ * {@link #tickAsLong(long)} and {@link #timeAsLong()}) never allocate, while methods which operate
+ * on {@link LogicalTimestamp} objects are thin wrappers on top of them.
+ *
+ * <p>
+ * Optional {@link ClockListener} is notified about retries of contended updates and merges of
+ * received timestamps.
  *
  * @author Anton Kharenko
  * @see com.antonkharenko.logicalclocks.LogicalTimestamp
  */
 public class LogicalClock {
 
-  private final AtomicReference<LogicalTimestamp> timeReference = new AtomicReference<>();
+  private final AtomicLong time;
+  private final ClockListener listener;
 
   /**
    * Creates instance of logical clock with default initial timestamp.
@@ -28,14 +36,34 @@ public class LogicalClock {
    * Creates instance of logical clock with the given initial timestamp.
    */
   public LogicalClock(LogicalTimestamp initialTimestamp) {
-    this.timeReference.set(initialTimestamp);
+    this(initialTimestamp, null);
+  }
+
+  /**
+   * Creates instance of logical clock with the given initial timestamp and listener.
+   *
+   * @param initialTimestamp initial timestamp of the clock
+   * @param listener listener to notify about clock updates or {@code null}
+   */
+  public LogicalClock(LogicalTimestamp initialTimestamp, ClockListener listener) {
+    this.time = new AtomicLong(initialTimestamp.toLong());
+    this.listener = listener;
   }
 
   /**
    * Returns current value of the clock.
    */
   public LogicalTimestamp time() {
-    return timeReference.get();
+    return LogicalTimestamp.fromLong(timeAsLong());
+  }
+
+  /**
+   * Returns current value of the clock in its long representation.
+   *
+   * @see LogicalTimestamp#fromLong(long)
+   */
+  public long timeAsLong() {
+    return time.get();
   }
 
   /**
@@ -44,12 +72,18 @@ public class LogicalClock {
    * @return New value of the clock.
    */
   public LogicalTimestamp tick() {
-    LogicalTimestamp previousTimestamp, nextTimestamp;
-    do {
-      previousTimestamp = timeReference.get();
-      nextTimestamp = previousTimestamp.nextTimestamp();
-    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
-    return nextTimestamp;
+    return LogicalTimestamp.fromLong(tickAsLong());
+  }
+
+  /**
+   * Increments the clock time and returns newly set value of the clock in its long representation.
+   * It is done with a single atomic increment and doesn't allocate.
+   *
+   * @return New value of the clock.
+   * @see LogicalTimestamp#fromLong(long)
+   */
+  public long tickAsLong() {
+    return time.incrementAndGet();
   }
 
   /**
@@ -61,15 +95,93 @@ public class LogicalClock {
    * @return New value of the clock.
    */
   public LogicalTimestamp tick(LogicalTimestamp happensBeforeTimestamp) {
-    LogicalTimestamp previousTimestamp, nextTimestamp;
+    return LogicalTimestamp.fromLong(tickAsLong(happensBeforeTimestamp.toLong()));
+  }
+
+  /**
+   * Increments the value of the clock taking into account that provided timestamp happens before
+   * that moment. Returns new value of the clock which happens after previous value of the clock and
+   * provided timestamp. Timestamps are given in their long representation and this method doesn't
+   * allocate.
+   *
+   * @param happensBeforeTimestamp long value of timestamp which happens in the past
+   * @return New value of the clock.
+   * @see LogicalTimestamp#fromLong(long)
+   */
+  public long tickAsLong(long happensBeforeTimestamp) {
+    long previousTimestamp, nextTimestamp;
+    int retries = -1;
     do {
-      previousTimestamp = timeReference.get();
-      if (previousTimestamp.isAfter(happensBeforeTimestamp)) {
-        nextTimestamp = previousTimestamp.nextTimestamp();
-      } else {
-        nextTimestamp = happensBeforeTimestamp.nextTimestamp();
+      retries++;
+      previousTimestamp = time.get();
+      if (LogicalTimestamp.compare(previousTimestamp, happensBeforeTimestamp) > 0) {
+        // Clock only moves forward, so it stays after the given timestamp once it is there
+        nextTimestamp = time.incrementAndGet();
+        if (listener != null) {
+          notifyMerge(retries, 0);
+        }
+        return nextTimestamp;
       }
-    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+      nextTimestamp = happensBeforeTimestamp + 1;
+    } while (!time.compareAndSet(previousTimestamp, nextTimestamp));
+    if (listener != null) {
+      notifyMerge(retries, happensBeforeTimestamp - previousTimestamp);
+    }
     return nextTimestamp;
   }
+
+  /**
+   * Reserves contiguous range of the given number of timestamps with a single atomic operation. All
+   * timestamps of the range happen after previous value of the clock and the clock is set to the
+   * last timestamp of the range.
+   *
+   * @param count number of timestamps to reserve
+   * @return Range of reserved timestamps.
+   */
+  public LogicalTimestampRange tick(int count) {
+    if (count <= 0)
+      throw new IllegalArgumentException("Count should be positive.");
+    long lastTimestamp = time.addAndGet(count);
+    return new LogicalTimestampRange(lastTimestamp - count + 1, count);
+  }
+
+  /**
+   * Reserves contiguous range of the given number of timestamps taking into account that provided
+   * timestamp happens before that moment. All timestamps of the range happen after previous value
+   * of the clock and provided timestamp and the clock is set to the last timestamp of the range.
+   *
+   * @param count number of timestamps to reserve
+   * @param happensBeforeTimestamp timestamp value which happens in the past
+   * @return Range of reserved timestamps.
+   */
+  public LogicalTimestampRange tick(int count, LogicalTimestamp happensBeforeTimestamp) {
+    if (count <= 0)
+      throw new IllegalArgumentException("Count should be positive.");
+    long happensBefore = happensBeforeTimestamp.toLong();
+    long previousTimestamp, lastTimestamp;
+    long advance;
+    int retries = -1;
+    do {
+      retries++;
+      previousTimestamp = time.get();
+      if (LogicalTimestamp.compare(previousTimestamp, happensBefore) > 0) {
+        lastTimestamp = time.addAndGet(count);
+        advance = 0;
+        break;
+      }
+      lastTimestamp = happensBefore + count;
+      advance = happensBefore - previousTimestamp;
+    } while (!time.compareAndSet(previousTimestamp, lastTimestamp));
+    if (listener != null) {
+      notifyMerge(retries, advance);
+    }
+    return new LogicalTimestampRange(lastTimestamp - count + 1, count);
+  }
+
+  private void notifyMerge(int retries, long advance) {
+    if (retries > 0) {
+      listener.onContention(retries);
+    }
+    listener.onMerge(advance);
+  }
 }
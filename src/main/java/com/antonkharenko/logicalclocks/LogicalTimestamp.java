@@ -1,6 +1,10 @@
 package com.antonkharenko.logicalclocks;
 
 import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import javax.annotation.Nonnull;
 
@@ -66,14 +70,116 @@ public final class LogicalTimestamp implements Comparable<LogicalTimestamp>, Ser
   /**
    * Converts given byte array into corresponding logical timestamp. It is supposed that given byte
    * array was produced by {@link LogicalTimestamp#toBytes()} method.
+   *
+   * @throws IllegalArgumentException if length of the given array is not equal to 8 bytes
    */
   public static LogicalTimestamp fromBytes(byte[] bytes) {
-    long count = 0;
-    for (byte aByte : bytes) {
-      count <<= Byte.SIZE;
-      count += aByte & 0xFF;
+    if (bytes.length != LONG_BYTES)
+      throw new IllegalArgumentException("Expected " + LONG_BYTES + " bytes, but got "
+          + bytes.length + ".");
+    return new LogicalTimestamp(
+        (bytes[0] & 0xFFL) << 56
+        | (bytes[1] & 0xFFL) << 48
+        | (bytes[2] & 0xFFL) << 40
+        | (bytes[3] & 0xFFL) << 32
+        | (bytes[4] & 0xFFL) << 24
+        | (bytes[5] & 0xFFL) << 16
+        | (bytes[6] & 0xFFL) << 8
+        | (bytes[7] & 0xFFL));
+  }
+
+  /**
+   * Reads logical timestamp at the current position of the given buffer and advances its position
+   * by 8 bytes. Timestamp is read in the format of {@link LogicalTimestamp#toBytes()} regardless of
+   * the byte order of the buffer.
+   *
+   * @throws BufferUnderflowException if there are fewer than 8 bytes remaining in the buffer
+   */
+  public static LogicalTimestamp readFrom(ByteBuffer buffer) {
+    return new LogicalTimestamp(fromBufferOrder(buffer, buffer.getLong()));
+  }
+
+  /**
+   * Reads logical timestamp at the given index of the given buffer without changing its position.
+   * Timestamp is read in the format of {@link LogicalTimestamp#toBytes()} regardless of the byte
+   * order of the buffer.
+   *
+   * @throws IndexOutOfBoundsException if index is negative or not smaller than the buffer's limit,
+   *         minus 7
+   */
+  public static LogicalTimestamp readFrom(ByteBuffer buffer, int index) {
+    return new LogicalTimestamp(fromBufferOrder(buffer, buffer.getLong(index)));
+  }
+
+  /**
+   * Reads given number of timestamps starting at the current position of the given buffer into the
+   * given array starting at the given offset and advances position of the buffer. Timestamps are
+   * read in their long representation, so no objects are allocated.
+   *
+   * @throws BufferUnderflowException if there are fewer than {@code length * 8} bytes remaining in
+   *         the buffer
+   * @see LogicalTimestamp#fromLong(long)
+   */
+  public static void readFrom(ByteBuffer buffer, long[] timestamps, int offset, int length) {
+    if (buffer.remaining() < length * LONG_BYTES)
+      throw new BufferUnderflowException();
+    bigEndian(buffer).asLongBuffer().get(timestamps, offset, length);
+    buffer.position(buffer.position() + length * LONG_BYTES);
+  }
+
+  /**
+   * Reads given number of timestamps starting at the current position of the given buffer into the
+   * given array starting at the given offset and advances position of the buffer.
+   *
+   * @throws BufferUnderflowException if there are fewer than {@code length * 8} bytes remaining in
+   *         the buffer
+   */
+  public static void readFrom(ByteBuffer buffer, LogicalTimestamp[] timestamps, int offset,
+      int length) {
+    if (offset < 0 || length < 0 || offset + length > timestamps.length)
+      throw new IndexOutOfBoundsException();
+    if (buffer.remaining() < length * LONG_BYTES)
+      throw new BufferUnderflowException();
+    for (int i = offset; i < offset + length; i++) {
+      timestamps[i] = readFrom(buffer);
+    }
+  }
+
+  /**
+   * Writes given number of timestamps from the given array starting at the given offset into the
+   * given buffer at its current position and advances position of the buffer. Timestamps are
+   * written in the format of {@link LogicalTimestamp#toBytes()} regardless of the byte order of the
+   * buffer.
+   *
+   * @throws BufferOverflowException if there are fewer than {@code length * 8} bytes remaining in
+   *         the buffer
+   * @see LogicalTimestamp#toLong()
+   */
+  public static void writeTo(ByteBuffer buffer, long[] timestamps, int offset, int length) {
+    if (buffer.remaining() < length * LONG_BYTES)
+      throw new BufferOverflowException();
+    bigEndian(buffer).asLongBuffer().put(timestamps, offset, length);
+    buffer.position(buffer.position() + length * LONG_BYTES);
+  }
+
+  /**
+   * Writes given number of timestamps from the given array starting at the given offset into the
+   * given buffer at its current position and advances position of the buffer. Timestamps are
+   * written in the format of {@link LogicalTimestamp#toBytes()} regardless of the byte order of the
+   * buffer.
+   *
+   * @throws BufferOverflowException if there are fewer than {@code length * 8} bytes remaining in
+   *         the buffer
+   */
+  public static void writeTo(ByteBuffer buffer, LogicalTimestamp[] timestamps, int offset,
+      int length) {
+    if (offset < 0 || length < 0 || offset + length > timestamps.length)
+      throw new IndexOutOfBoundsException();
+    if (buffer.remaining() < length * LONG_BYTES)
+      throw new BufferOverflowException();
+    for (int i = offset; i < offset + length; i++) {
+      timestamps[i].writeTo(buffer);
     }
-    return new LogicalTimestamp(count);
   }
 
   /**
@@ -89,11 +195,52 @@ public final class LogicalTimestamp implements Comparable<LogicalTimestamp>, Ser
    * {@link LogicalTimestamp#fromBytes(byte[])} method.
    */
   public byte[] toBytes() {
-    byte[] bytes = new byte[LONG_BYTES];
-    for (int i = 0; i < LONG_BYTES; i++) {
-      bytes[i] = (byte) (cyclicTime >> (LONG_BYTES - i - 1 << 3));
-    }
-    return bytes;
+    return new byte[] {
+        (byte) (cyclicTime >>> 56),
+        (byte) (cyclicTime >>> 48),
+        (byte) (cyclicTime >>> 40),
+        (byte) (cyclicTime >>> 32),
+        (byte) (cyclicTime >>> 24),
+        (byte) (cyclicTime >>> 16),
+        (byte) (cyclicTime >>> 8),
+        (byte) cyclicTime};
+  }
+
+  /**
+   * Writes this timestamp at the current position of the given buffer and advances its position by
+   * 8 bytes. Timestamp is written in the format of {@link LogicalTimestamp#toBytes()} regardless of
+   * the byte order of the buffer.
+   *
+   * @throws BufferOverflowException if there are fewer than 8 bytes remaining in the buffer
+   */
+  public void writeTo(ByteBuffer buffer) {
+    buffer.putLong(fromBufferOrder(buffer, cyclicTime));
+  }
+
+  /**
+   * Writes this timestamp at the given index of the given buffer without changing its position.
+   * Timestamp is written in the format of {@link LogicalTimestamp#toBytes()} regardless of the byte
+   * order of the buffer.
+   *
+   * @throws IndexOutOfBoundsException if index is negative or not smaller than the buffer's limit,
+   *         minus 7
+   */
+  public void writeTo(ByteBuffer buffer, int index) {
+    buffer.putLong(index, fromBufferOrder(buffer, cyclicTime));
+  }
+
+  /**
+   * Converts value between big-endian order of the serialized timestamp and the byte order of the
+   * given buffer.
+   */
+  private static long fromBufferOrder(ByteBuffer buffer, long value) {
+    return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+  }
+
+  private static ByteBuffer bigEndian(ByteBuffer buffer) {
+    return buffer.order() == ByteOrder.BIG_ENDIAN
+        ? buffer
+        : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
   }
 
   /**
@@ -129,10 +276,25 @@ public final class LogicalTimestamp implements Comparable<LogicalTimestamp>, Ser
    */
   @Override
   public int compareTo(@Nonnull LogicalTimestamp that) {
-    if ((this.cyclicTime < 0) == (that.cyclicTime < 0)) {
-      return Long.compare(this.cyclicTime, that.cyclicTime);
+    return compare(this.cyclicTime, that.cyclicTime);
+  }
+
+  /**
+   * Compares two logical timestamps given in their long representation using the same cyclic
+   * semantics as {@link LogicalTimestamp#compareTo(LogicalTimestamp)}. It allows to compare
+   * timestamps without wrapping them into objects.
+   *
+   * @param x the first timestamp value to compare
+   * @param y the second timestamp value to compare
+   * @return the value {@code 0} if {@code x} happens at same logical time as {@code y}; a value
+   *         less than {@code 0} if {@code x} is smaller than {@code y}; and a value greater than
+   *         {@code 0} if {@code x} is bigger than {@code y}.
+   */
+  public static int compare(long x, long y) {
+    if ((x < 0) == (y < 0)) {
+      return Long.compare(x, y);
     } else {
-      return Long.compare(that.cyclicTime & Long.MAX_VALUE, this.cyclicTime & Long.MAX_VALUE);
+      return Long.compare(y & Long.MAX_VALUE, x & Long.MAX_VALUE);
     }
   }
 
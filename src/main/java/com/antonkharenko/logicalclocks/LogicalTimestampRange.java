@@ -0,0 +1,141 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents contiguous range of logical timestamps reserved at once. This class is
+ * immutable. All timestamps within range are ordered by their index, so events stamped with them in
+ * the index order preserve causal ordering between each other.
+ *
+ * <p>
+ * Timestamps of the range can be accessed in their long representation without any allocation by
+ * {@link #getAsLong(int)} method.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.LogicalClock#tick(int)
+ */
+public final class LogicalTimestampRange implements Iterable<LogicalTimestamp> {
+
+  private final long first;
+  private final int size;
+
+  /**
+   * Creates range of the given size which starts from the given cyclic time value.
+   */
+  LogicalTimestampRange(long first, int size) {
+    if (size <= 0)
+      throw new IllegalArgumentException("Range size should be positive.");
+    this.first = first;
+    this.size = size;
+  }
+
+  /**
+   * Returns number of timestamps in this range.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns first timestamp in this range which happens before all other timestamps of the range.
+   */
+  public LogicalTimestamp first() {
+    return LogicalTimestamp.fromLong(first);
+  }
+
+  /**
+   * Returns last timestamp in this range which happens after all other timestamps of the range.
+   */
+  public LogicalTimestamp last() {
+    return LogicalTimestamp.fromLong(lastAsLong());
+  }
+
+  /**
+   * Returns long representation of the first timestamp in this range.
+   */
+  public long firstAsLong() {
+    return first;
+  }
+
+  /**
+   * Returns long representation of the last timestamp in this range.
+   */
+  public long lastAsLong() {
+    return first + size - 1;
+  }
+
+  /**
+   * Returns timestamp with the given index within this range.
+   */
+  public LogicalTimestamp get(int index) {
+    return LogicalTimestamp.fromLong(getAsLong(index));
+  }
+
+  /**
+   * Returns long representation of the timestamp with the given index within this range.
+   */
+  public long getAsLong(int index) {
+    if (index < 0 || index >= size)
+      throw new IllegalArgumentException("Index out of bounds.");
+    return first + index;
+  }
+
+  /**
+   * Returns true if the given timestamp belongs to this range.
+   */
+  public boolean contains(LogicalTimestamp timestamp) {
+    return LogicalTimestamp.compare(timestamp.toLong(), first) >= 0
+        && LogicalTimestamp.compare(timestamp.toLong(), lastAsLong()) <= 0;
+  }
+
+  /**
+   * Returns iterator over timestamps of this range in their happens before order.
+   */
+  @Override
+  public Iterator<LogicalTimestamp> iterator() {
+    return new Iterator<LogicalTimestamp>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public LogicalTimestamp next() {
+        if (index >= size)
+          throw new NoSuchElementException();
+        return LogicalTimestamp.fromLong(first + index++);
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    LogicalTimestampRange that = (LogicalTimestampRange) o;
+    return this.first == that.first && this.size == that.size;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (int) (first ^ (first >>> 32)) + size;
+  }
+
+  @Override
+  public String toString() {
+    return "[" + first + ".." + lastAsLong() + "]";
+  }
+}
@@ -0,0 +1,190 @@
+package com.antonkharenko.logicalclocks;
+
+/**
+ * This class implements matrix clock abstraction. Besides vector time of the local process, which
+ * is the same as time of {@link VectorClock}, matrix clock keeps for each other process the latest
+ * vector time of that process known locally. It allows to detect causally stable events, i.e.
+ * events which are known to be seen by all processes. Such events will never be received again and
+ * can be removed from logs and buffers.
+ *
+ * <p>
+ * Stable time is the column-wise minimum of the matrix: event of the process {@code j} with counter
+ * {@code c} is stable when {@code c} is not after the entry {@code j} of the stable time. It is
+ * maintained incrementally together with the number of rows which hold the minimum of each column,
+ * so update of an entry rescans its column only when the last row holding the minimum moves
+ * forward.
+ *
+ * <p>
+ * This implementation is thread safe and uses intrinsic lock of the clock.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorClock
+ */
+public class MatrixClock {
+
+  private final int processIndex;
+  private final long[][] rows;
+  private final long[] columnMins;
+  private final int[] columnMinCounts;
+
+  /**
+   * Creates instance of matrix clock with default initial timestamps and given local process index
+   * and the number of processes in a distributed system.
+   */
+  public MatrixClock(int processIndex, int processCount) {
+    if (processIndex < 0 || processIndex >= processCount)
+      throw new IllegalArgumentException("Index out of bounds.");
+    this.processIndex = processIndex;
+    this.rows = new long[processCount][processCount];
+    this.columnMins = new long[processCount];
+    this.columnMinCounts = new int[processCount];
+    for (int j = 0; j < processCount; j++) {
+      columnMinCounts[j] = processCount;
+    }
+  }
+
+  /**
+   * Returns current vector time of the local process.
+   */
+  public synchronized VectorTimestamp time() {
+    return VectorTimestamp.fromLongs(rows[processIndex]);
+  }
+
+  /**
+   * Returns the latest vector time of the given process known by the local process.
+   */
+  public synchronized VectorTimestamp knownTime(int index) {
+    checkIndex(index);
+    return VectorTimestamp.fromLongs(rows[index]);
+  }
+
+  /**
+   * Returns rows of the matrix which should be sent to other processes along with messages.
+   */
+  public synchronized VectorTimestamp[] matrix() {
+    VectorTimestamp[] matrix = new VectorTimestamp[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      matrix[i] = VectorTimestamp.fromLongs(rows[i]);
+    }
+    return matrix;
+  }
+
+  /**
+   * Returns column-wise minimum of the matrix, i.e. vector time which is known to be seen by all
+   * processes.
+   */
+  public synchronized VectorTimestamp stableTime() {
+    return VectorTimestamp.fromLongs(columnMins);
+  }
+
+  /**
+   * Returns true if event of the given process with the given counter is seen by all processes.
+   *
+   * @param index index of the process which produced the event
+   * @param counter value of the own entry of the process at the event
+   */
+  public synchronized boolean isStable(int index, long counter) {
+    checkIndex(index);
+    return LogicalTimestamp.compare(counter, columnMins[index]) <= 0;
+  }
+
+  /**
+   * Increments the clock time of the local process and returns its newly set vector time.
+   *
+   * @return New vector time of the local process.
+   */
+  public synchronized VectorTimestamp tick() {
+    increment();
+    return time();
+  }
+
+  /**
+   * Increments the clock time of the local process taking into account that the given vector time
+   * of the sender happens before that moment. The latest known time of the sender is updated as
+   * well.
+   *
+   * @param senderIndex index of the sender process
+   * @param senderTimestamp vector time of the sender at the send event
+   * @return New vector time of the local process.
+   */
+  public synchronized VectorTimestamp tick(int senderIndex, VectorTimestamp senderTimestamp) {
+    checkIndex(senderIndex);
+    checkLength(senderTimestamp);
+    long[] entries = senderTimestamp.entries();
+    merge(senderIndex, entries);
+    merge(processIndex, entries);
+    increment();
+    return time();
+  }
+
+  /**
+   * Increments the clock time of the local process taking into account that the given matrix of
+   * the sender happens before that moment. Each row of the matrix is merged into the
+   * corresponding row of the local matrix.
+   *
+   * @param senderIndex index of the sender process
+   * @param senderMatrix matrix of the sender at the send event
+   * @return New vector time of the local process.
+   */
+  public synchronized VectorTimestamp tick(int senderIndex, VectorTimestamp[] senderMatrix) {
+    checkIndex(senderIndex);
+    if (senderMatrix.length != rows.length)
+      throw new IllegalArgumentException("Matrix size do not match.");
+    for (VectorTimestamp row : senderMatrix) {
+      checkLength(row);
+    }
+    for (int i = 0; i < rows.length; i++) {
+      merge(i, senderMatrix[i].entries());
+    }
+    merge(processIndex, senderMatrix[senderIndex].entries());
+    increment();
+    return time();
+  }
+
+  private void increment() {
+    long[] row = rows[processIndex];
+    update(processIndex, processIndex, row[processIndex] + 1);
+  }
+
+  private void merge(int rowIndex, long[] entries) {
+    long[] row = rows[rowIndex];
+    for (int j = 0; j < row.length; j++) {
+      if (LogicalTimestamp.compare(entries[j], row[j]) > 0) {
+        update(rowIndex, j, entries[j]);
+      }
+    }
+  }
+
+  /**
+   * Moves the given entry of the matrix forward and updates minimum of its column.
+   */
+  private void update(int rowIndex, int columnIndex, long value) {
+    long previousValue = rows[rowIndex][columnIndex];
+    rows[rowIndex][columnIndex] = value;
+    if (previousValue == columnMins[columnIndex] && --columnMinCounts[columnIndex] == 0) {
+      long min = rows[0][columnIndex];
+      int count = 0;
+      for (long[] row : rows) {
+        int comparison = LogicalTimestamp.compare(row[columnIndex], min);
+        if (comparison < 0) {
+          min = row[columnIndex];
+          count = 1;
+        } else if (comparison == 0) {
+          count++;
+        }
+      }
+      columnMins[columnIndex] = min;
+      columnMinCounts[columnIndex] = count;
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= rows.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+  }
+
+  private void checkLength(VectorTimestamp timestamp) {
+    if (timestamp.length() != rows.length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+  }
+}
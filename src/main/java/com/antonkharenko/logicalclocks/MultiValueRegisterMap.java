@@ -0,0 +1,224 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class implements in-memory key-value map where each key holds multi-value register in the
+ * style of Dynamo: set of sibling values stamped with vector timestamps none of which happens
+ * before another one. Value put with a timestamp replaces all siblings which happen before it and
+ * is kept together with concurrent ones. Value whose timestamp happens before or is equal to one of
+ * the siblings is obsolete and ignored.
+ *
+ * <p>
+ * Writers normally read {@link Siblings#context()} of the key, which is the merge of timestamps of
+ * all siblings, and put the resolved value with a timestamp produced by
+ * {@link VectorClock#tick(VectorTimestamp)} for that context, so the new value replaces all
+ * siblings it has seen.
+ *
+ * <p>
+ * This implementation is thread safe and non-blocking. Siblings of a key are immutable and are
+ * replaced with compare-and-set of the map entry. Timestamps of siblings are kept in a single flat
+ * array of entries.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp
+ */
+public class MultiValueRegisterMap<K, V> {
+
+  private static final int CONCURRENT_FLAGS = VectorTimestamp.BEFORE_FLAG
+      | VectorTimestamp.AFTER_FLAG;
+
+  private final ConcurrentMap<K, Siblings<V>> registers = new ConcurrentHashMap<>();
+  private final int vectorLength;
+
+  /**
+   * Creates empty map of registers stamped with vector timestamps of the given length.
+   */
+  public MultiValueRegisterMap(int vectorLength) {
+    if (vectorLength < 0)
+      throw new IllegalArgumentException("Vector length should be non-negative.");
+    this.vectorLength = vectorLength;
+  }
+
+  /**
+   * Returns siblings of the given key or {@code null} if there are no values for the key.
+   */
+  public Siblings<V> get(K key) {
+    return registers.get(key);
+  }
+
+  /**
+   * Puts the given value stamped with the given timestamp. Siblings which happen before the
+   * timestamp are removed.
+   *
+   * @param key key of the register
+   * @param value value to put
+   * @param timestamp vector timestamp of the value
+   * @return True if the value is stored or false if it is obsolete, i.e. its timestamp happens
+   *         before or is equal to timestamp of one of the siblings.
+   */
+  public boolean put(K key, V value, VectorTimestamp timestamp) {
+    if (timestamp.length() != vectorLength)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    long[] entries = timestamp.entries();
+    while (true) {
+      Siblings<V> previousSiblings = registers.get(key);
+      if (previousSiblings == null) {
+        Siblings<V> siblings = new Siblings<>(vectorLength, new Object[] {value}, entries);
+        if (registers.putIfAbsent(key, siblings) == null)
+          return true;
+      } else {
+        Siblings<V> siblings = previousSiblings.put(value, entries);
+        if (siblings == previousSiblings)
+          return false;
+        if (registers.replace(key, previousSiblings, siblings))
+          return true;
+      }
+    }
+  }
+
+  /**
+   * Removes all siblings of the given key.
+   *
+   * @return Removed siblings or {@code null} if there were no values for the key.
+   */
+  public Siblings<V> remove(K key) {
+    return registers.remove(key);
+  }
+
+  /**
+   * Returns number of keys in the map.
+   */
+  public int size() {
+    return registers.size();
+  }
+
+  /**
+   * Sibling values of a key with their timestamps. This class is immutable.
+   */
+  public static final class Siblings<V> {
+
+    private final int vectorLength;
+    private final Object[] values;
+    private final long[] entries;
+
+    private Siblings(int vectorLength, Object[] values, long[] entries) {
+      this.vectorLength = vectorLength;
+      this.values = values;
+      this.entries = entries;
+    }
+
+    /**
+     * Returns number of siblings.
+     */
+    public int size() {
+      return values.length;
+    }
+
+    /**
+     * Returns value of the sibling with the given index.
+     */
+    @SuppressWarnings("unchecked")
+    public V value(int index) {
+      checkIndex(index);
+      return (V) values[index];
+    }
+
+    /**
+     * Returns timestamp of the sibling with the given index.
+     */
+    public VectorTimestamp timestamp(int index) {
+      checkIndex(index);
+      int offset = index * vectorLength;
+      return new VectorTimestamp(Arrays.copyOfRange(entries, offset, offset + vectorLength));
+    }
+
+    /**
+     * Returns unmodifiable list of sibling values.
+     */
+    public List<V> values() {
+      return new AbstractList<V>() {
+        @Override
+        public V get(int index) {
+          return value(index);
+        }
+
+        @Override
+        public int size() {
+          return values.length;
+        }
+      };
+    }
+
+    /**
+     * Returns causal context of the siblings, i.e. timestamp which is merge of timestamps of all
+     * siblings.
+     */
+    public VectorTimestamp context() {
+      long[] context = Arrays.copyOf(entries, vectorLength);
+      for (int offset = vectorLength; offset < entries.length; offset += vectorLength) {
+        for (int j = 0; j < vectorLength; j++) {
+          if (LogicalTimestamp.compare(entries[offset + j], context[j]) > 0) {
+            context[j] = entries[offset + j];
+          }
+        }
+      }
+      return new VectorTimestamp(context);
+    }
+
+    /**
+     * Returns siblings with the given value added and siblings which happen before it removed or
+     * this instance if the value is obsolete.
+     */
+    private Siblings<V> put(Object value, long[] timestamp) {
+      int[] flags = new int[values.length];
+      int keptCount = 0;
+      for (int i = 0; i < values.length; i++) {
+        int offset = i * vectorLength;
+        for (int j = 0; j < vectorLength && flags[i] != CONCURRENT_FLAGS; j++) {
+          flags[i] |= VectorTimestamp.relationFlags(entries[offset + j], timestamp[j]);
+        }
+        if (flags[i] == CONCURRENT_FLAGS) {
+          keptCount++;
+        } else if (flags[i] != VectorTimestamp.BEFORE_FLAG) {
+          return this;
+        }
+      }
+      Object[] newValues = new Object[keptCount + 1];
+      long[] newEntries = new long[(keptCount + 1) * vectorLength];
+      int newIndex = 0;
+      for (int i = 0; i < values.length; i++) {
+        if (flags[i] == CONCURRENT_FLAGS) {
+          newValues[newIndex] = values[i];
+          System.arraycopy(entries, i * vectorLength, newEntries, newIndex * vectorLength,
+              vectorLength);
+          newIndex++;
+        }
+      }
+      newValues[newIndex] = value;
+      System.arraycopy(timestamp, 0, newEntries, newIndex * vectorLength, vectorLength);
+      return new Siblings<>(vectorLength, newValues, newEntries);
+    }
+
+    private void checkIndex(int index) {
+      if (index < 0 || index >= values.length)
+        throw new IllegalArgumentException("Index out of bounds.");
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("{");
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(values[i]).append('=').append(timestamp(i));
+      }
+      return sb.append('}').toString();
+    }
+  }
+}
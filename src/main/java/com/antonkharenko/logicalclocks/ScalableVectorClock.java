@@ -0,0 +1,129 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class implements vector clock for processes where many threads stamp local events at the
+ * same time. It provides the same guarantees as {@link VectorClock}, but keeps the entry of the
+ * local process in a separate atomic counter, while the rest of the vector changes only on merges
+ * of received timestamps.
+ *
+ * <p>
+ * Local tick is a single atomic increment of the counter followed by a copy of the current vector,
+ * so contended ticks never retry vector copies like compare-and-set loop of {@link VectorClock}
+ * does. Merges are serialized with a lock: merge publishes the new vector and only then increments
+ * the local counter. Tick which observes publication of a new vector between reading of the vector
+ * and increment of the counter retries with the new vector, which leaves a gap in the values of
+ * the local entry. Gaps don't affect comparison of timestamps. Tick which runs concurrently with a
+ * merge may be stamped as happening after the merged timestamp even if its counter is smaller than
+ * the counter of the merge, but it is never stamped as concurrent with its preceding local events.
+ *
+ * <p>
+ * Returned timestamps are immutable snapshots.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorClock
+ */
+public class ScalableVectorClock {
+
+  private final AtomicLong localTime;
+  private final Object mergeLock = new Object();
+  private final int processIndex;
+  private volatile VectorTimestamp vectorTime;
+
+  /**
+   * Creates instance of clock with default initial timestamps and given local process index and
+   * the number of processes in a distributed system.
+   */
+  public ScalableVectorClock(int processIndex, int processCount) {
+    this(processIndex, new VectorTimestamp(processCount));
+  }
+
+  /**
+   * Creates instance of clock with the given initial timestamps and given local process index.
+   */
+  public ScalableVectorClock(int processIndex, VectorTimestamp initialTimestamp) {
+    if (processIndex < 0 || processIndex >= initialTimestamp.length())
+      throw new IllegalArgumentException("Index out of bounds.");
+    this.processIndex = processIndex;
+    this.localTime = new AtomicLong(initialTimestamp.getAsLong(processIndex));
+    this.vectorTime = initialTimestamp;
+  }
+
+  /**
+   * Returns current value of the clock.
+   */
+  public VectorTimestamp time() {
+    VectorTimestamp vector;
+    long local;
+    do {
+      vector = vectorTime;
+      local = localTime.get();
+    } while (vector != vectorTime);
+    return withLocalTime(vector, local);
+  }
+
+  /**
+   * Increments the clock time and returns newly set value of the clock.
+   *
+   * @return New value of the clock.
+   */
+  public VectorTimestamp tick() {
+    VectorTimestamp vector;
+    long local;
+    do {
+      vector = vectorTime;
+      local = localTime.incrementAndGet();
+    } while (vector != vectorTime);
+    return withLocalTime(vector, local);
+  }
+
+  /**
+   * Increments the value of the clock taking into account that provided timestamp happens before
+   * that moment. Returns new value of the clock which happens after previous value of the clock and
+   * provided timestamp.
+   *
+   * @param happensBeforeTimestamp timestamp value which happens in the past
+   * @return New value of the clock.
+   */
+  public VectorTimestamp tick(VectorTimestamp happensBeforeTimestamp) {
+    return tickMerged(happensBeforeTimestamp);
+  }
+
+  /**
+   * Increments the value of the clock once taking into account that all provided timestamps happen
+   * before that moment.
+   *
+   * @param happensBeforeTimestamps timestamp values which happen in the past
+   * @return New value of the clock.
+   * @see VectorClock#tick(VectorTimestamp[])
+   */
+  public VectorTimestamp tick(VectorTimestamp[] happensBeforeTimestamps) {
+    if (happensBeforeTimestamps.length == 0)
+      return tick();
+    return tickMerged(VectorTimestamp.merge(happensBeforeTimestamps));
+  }
+
+  private VectorTimestamp tickMerged(VectorTimestamp happensBeforeTimestamp) {
+    if (happensBeforeTimestamp.length() != vectorTime.length())
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    synchronized (mergeLock) {
+      VectorTimestamp vector = VectorTimestamp.merge(vectorTime, happensBeforeTimestamp);
+      vectorTime = vector;
+      // Local entry of the received timestamp is normally behind, but it doesn't hurt to catch up
+      long receivedLocal = happensBeforeTimestamp.getAsLong(processIndex);
+      long local;
+      do {
+        local = localTime.get();
+      } while (LogicalTimestamp.compare(local, receivedLocal) < 0
+          && !localTime.compareAndSet(local, receivedLocal));
+      return withLocalTime(vector, localTime.incrementAndGet());
+    }
+  }
+
+  private VectorTimestamp withLocalTime(VectorTimestamp vector, long local) {
+    long[] entries = vector.toLongs();
+    entries[processIndex] = local;
+    return new VectorTimestamp(entries);
+  }
+}
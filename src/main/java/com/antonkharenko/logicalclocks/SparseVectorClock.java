@@ -0,0 +1,79 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class implements sparse vector clock abstraction. In compare to {@link VectorClock} it
+ * doesn't assume fixed number of processes or their index order. Processes are identified by
+ * non-negative ids and may join or leave the system at any moment, while timestamps keep only the
+ * entries of processes which appear in their causal history.
+ *
+ * <p>
+ * This implementation provides methods to store and update local vector time in a thread safe and
+ * non-blocking way.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.SparseVectorTimestamp
+ */
+public class SparseVectorClock {
+
+  private final AtomicReference<SparseVectorTimestamp> timeReference = new AtomicReference<>();
+  private final int processId;
+
+  /**
+   * Creates instance of sparse vector clock with default initial timestamp and given local process
+   * id.
+   */
+  public SparseVectorClock(int processId) {
+    this(processId, new SparseVectorTimestamp());
+  }
+
+  /**
+   * Creates instance of sparse vector clock with the given initial timestamp and given local
+   * process id.
+   */
+  public SparseVectorClock(int processId, SparseVectorTimestamp initialTimestamp) {
+    if (processId < 0)
+      throw new IllegalArgumentException("Process id should be non-negative.");
+    this.timeReference.set(initialTimestamp);
+    this.processId = processId;
+  }
+
+  /**
+   * Returns current value of the clock.
+   */
+  public SparseVectorTimestamp time() {
+    return timeReference.get();
+  }
+
+  /**
+   * Increments the clock time and returns newly set value of the clock.
+   *
+   * @return New value of the clock.
+   */
+  public SparseVectorTimestamp tick() {
+    SparseVectorTimestamp previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = timeReference.get();
+      nextTimestamp = previousTimestamp.nextTimestamp(processId);
+    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+
+  /**
+   * Increments the value of the clock taking into account that provided timestamp happens before
+   * that moment. Returns new value of the clock which happens after previous value of the clock and
+   * provided timestamp.
+   *
+   * @param happensBeforeTimestamp timestamp value which happens in the past
+   * @return New value of the clock.
+   */
+  public SparseVectorTimestamp tick(SparseVectorTimestamp happensBeforeTimestamp) {
+    SparseVectorTimestamp previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = timeReference.get();
+      nextTimestamp = previousTimestamp.nextTimestamp(processId, happensBeforeTimestamp);
+    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+}
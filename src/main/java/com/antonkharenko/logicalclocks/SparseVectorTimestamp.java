@@ -0,0 +1,362 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class represents specific time value of sparse vector clock at the given moment of time.
+ * This class is immutable. In compare to {@link VectorTimestamp} it is keyed by process id instead
+ * of dense process index and stores only entries of the processes which appear in its causal
+ * history. All other entries are considered to be at the initial moment of time, so timestamps with
+ * different set of processes can be compared and merged.
+ *
+ * <p>
+ * Entries are stored as sorted primitive arrays of process ids and cyclic time values, so merge and
+ * compare operations take time proportional to the number of stored entries. Process ids should be
+ * non-negative.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.SparseVectorClock
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp
+ */
+public final class SparseVectorTimestamp implements Serializable {
+
+  private static final long serialVersionUID = -2703405781530745036L;
+
+  private static final int[] NO_PROCESS_IDS = new int[0];
+  private static final long[] NO_TIMESTAMPS = new long[0];
+
+  private final int[] processIds;
+  private final long[] timestamps;
+
+  /**
+   * Creates sparse vector timestamp where all processes are at the initial moment of time.
+   */
+  public SparseVectorTimestamp() {
+    this(NO_PROCESS_IDS, NO_TIMESTAMPS);
+  }
+
+  /**
+   * Creates sparse vector timestamp which takes ownership over the given arrays. Arrays should be
+   * of the same length, process ids should be sorted and arrays should not be modified after they
+   * were passed to this constructor.
+   */
+  private SparseVectorTimestamp(int[] processIds, long[] timestamps) {
+    this.processIds = processIds;
+    this.timestamps = timestamps;
+  }
+
+  /**
+   * Creates sparse vector timestamp by the given process ids and corresponding time values of the
+   * processes. Entries with zero time value are skipped.
+   *
+   * @param processIds non-negative process ids sorted in ascending order without duplicates
+   * @param longValues long representation of the logical time of each process
+   * @see LogicalTimestamp#toLong()
+   */
+  public static SparseVectorTimestamp fromLongs(int[] processIds, long[] longValues) {
+    if (processIds.length != longValues.length)
+      throw new IllegalArgumentException("Process ids and timestamps length do not match.");
+
+    int size = 0;
+    int[] newProcessIds = new int[processIds.length];
+    long[] newTimestamps = new long[longValues.length];
+    for (int i = 0; i < processIds.length; i++) {
+      checkProcessId(processIds[i]);
+      if (i > 0 && processIds[i] <= processIds[i - 1])
+        throw new IllegalArgumentException("Process ids should be sorted and unique.");
+      if (longValues[i] != 0) {
+        newProcessIds[size] = processIds[i];
+        newTimestamps[size] = longValues[i];
+        size++;
+      }
+    }
+    return new SparseVectorTimestamp(Arrays.copyOf(newProcessIds, size),
+        Arrays.copyOf(newTimestamps, size));
+  }
+
+  /**
+   * Returns number of processes which have non-initial time in this timestamp.
+   */
+  public int size() {
+    return processIds.length;
+  }
+
+  /**
+   * Returns sorted ids of the processes which have non-initial time in this timestamp.
+   */
+  public int[] processIds() {
+    return Arrays.copyOf(processIds, processIds.length);
+  }
+
+  /**
+   * Returns logical timestamp of the process with the given id.
+   */
+  public LogicalTimestamp get(int processId) {
+    return LogicalTimestamp.fromLong(getAsLong(processId));
+  }
+
+  /**
+   * Returns long representation of the logical timestamp of the process with the given id. It is
+   * equal to zero for processes which are not present in this timestamp.
+   */
+  public long getAsLong(int processId) {
+    int index = Arrays.binarySearch(processIds, processId);
+    return index >= 0 ? timestamps[index] : 0L;
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to current timestamp taking into
+   * account given local process id.
+   */
+  public SparseVectorTimestamp nextTimestamp(int localProcessId) {
+    checkProcessId(localProcessId);
+
+    int index = Arrays.binarySearch(processIds, localProcessId);
+    if (index >= 0) {
+      long[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
+      newTimestamps[index]++;
+      return new SparseVectorTimestamp(processIds, newTimestamps);
+    }
+
+    int insertionIndex = -index - 1;
+    int[] newProcessIds = new int[processIds.length + 1];
+    long[] newTimestamps = new long[timestamps.length + 1];
+    System.arraycopy(processIds, 0, newProcessIds, 0, insertionIndex);
+    System.arraycopy(timestamps, 0, newTimestamps, 0, insertionIndex);
+    newProcessIds[insertionIndex] = localProcessId;
+    newTimestamps[insertionIndex] = 1L;
+    System.arraycopy(processIds, insertionIndex, newProcessIds, insertionIndex + 1,
+        processIds.length - insertionIndex);
+    System.arraycopy(timestamps, insertionIndex, newTimestamps, insertionIndex + 1,
+        timestamps.length - insertionIndex);
+    return new SparseVectorTimestamp(newProcessIds, newTimestamps);
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to both given timestamp and current
+   * timestamp taking into account given local process id.
+   */
+  public SparseVectorTimestamp nextTimestamp(int localProcessId,
+      SparseVectorTimestamp happensBeforeTimestamp) {
+    checkProcessId(localProcessId);
+
+    int[] thatProcessIds = happensBeforeTimestamp.processIds;
+    long[] thatTimestamps = happensBeforeTimestamp.timestamps;
+    int maxSize = processIds.length + thatProcessIds.length + 1;
+    int[] newProcessIds = new int[maxSize];
+    long[] newTimestamps = new long[maxSize];
+    int size = 0;
+    int i = 0, j = 0;
+    boolean localProcessAdded = false;
+    while (i < processIds.length || j < thatProcessIds.length) {
+      boolean fromThis = j == thatProcessIds.length
+          || (i < processIds.length && processIds[i] <= thatProcessIds[j]);
+      boolean fromThat = i == processIds.length
+          || (j < thatProcessIds.length && thatProcessIds[j] <= processIds[i]);
+      int processId = fromThis ? processIds[i] : thatProcessIds[j];
+      long thisTime = fromThis ? timestamps[i++] : 0L;
+      long thatTime = fromThat ? thatTimestamps[j++] : 0L;
+
+      if (!localProcessAdded && localProcessId < processId) {
+        newProcessIds[size] = localProcessId;
+        newTimestamps[size++] = 1L;
+        localProcessAdded = true;
+      }
+      long newTime;
+      if (processId == localProcessId) {
+        newTime = thisTime + 1;
+        localProcessAdded = true;
+      } else {
+        newTime = LogicalTimestamp.compare(thisTime, thatTime) < 0 ? thatTime : thisTime;
+      }
+      if (newTime != 0) {
+        newProcessIds[size] = processId;
+        newTimestamps[size++] = newTime;
+      }
+    }
+    if (!localProcessAdded) {
+      newProcessIds[size] = localProcessId;
+      newTimestamps[size++] = 1L;
+    }
+
+    return new SparseVectorTimestamp(Arrays.copyOf(newProcessIds, size),
+        Arrays.copyOf(newTimestamps, size));
+  }
+
+  /**
+   * Returns true if current timestamp happens before given timestamp and timestamps are in a causal
+   * relation.
+   */
+  public boolean isHappensBefore(SparseVectorTimestamp that) {
+    return compare(that) == Relation.HAPPENS_BEFORE;
+  }
+
+  /**
+   * Returns true if current timestamp happens after given timestamp and timestamps are in a causal
+   * relation.
+   */
+  public boolean isHappensAfter(SparseVectorTimestamp that) {
+    return compare(that) == Relation.HAPPENS_AFTER;
+  }
+
+  /**
+   * Returns true if current timestamp happens concurrently and there is no causal relation between
+   * them.
+   */
+  public boolean isConcurrent(SparseVectorTimestamp that) {
+    return compare(that) == Relation.CONCURRENT;
+  }
+
+  /**
+   * Compares two sparse vector timestamps and defines relation between them. Processes which are
+   * absent in one of the timestamps are considered to be at the initial moment of time in it.
+   *
+   * @param that given sparse vector timestamp to compare
+   * @return {@code Relation} between current timestamp and the given one.
+   * @see com.antonkharenko.logicalclocks.Relation
+   */
+  public Relation compare(SparseVectorTimestamp that) {
+    int[] thatProcessIds = that.processIds;
+    long[] thatTimestamps = that.timestamps;
+    Relation relation = Relation.EQUAL;
+    int i = 0, j = 0;
+    while (i < processIds.length || j < thatProcessIds.length) {
+      boolean fromThis = j == thatProcessIds.length
+          || (i < processIds.length && processIds[i] <= thatProcessIds[j]);
+      boolean fromThat = i == processIds.length
+          || (j < thatProcessIds.length && thatProcessIds[j] <= processIds[i]);
+      long thisTime = fromThis ? timestamps[i++] : 0L;
+      long thatTime = fromThat ? thatTimestamps[j++] : 0L;
+
+      int cmp = LogicalTimestamp.compare(thisTime, thatTime);
+      if (cmp < 0) {
+        if (relation == Relation.HAPPENS_AFTER)
+          return Relation.CONCURRENT;
+        relation = Relation.HAPPENS_BEFORE;
+      } else if (cmp > 0) {
+        if (relation == Relation.HAPPENS_BEFORE)
+          return Relation.CONCURRENT;
+        relation = Relation.HAPPENS_AFTER;
+      }
+    }
+
+    return relation;
+  }
+
+  /**
+   * Converts given byte array into corresponding sparse vector timestamp. It is supposed that given
+   * byte array was produced by {@link SparseVectorTimestamp#toBytes()} method.
+   */
+  public static SparseVectorTimestamp fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    SparseVectorTimestamp timestamp = readFrom(buffer);
+    if (buffer.hasRemaining())
+      throw new IllegalArgumentException("Unexpected bytes after encoded vector timestamp.");
+    return timestamp;
+  }
+
+  /**
+   * Converts this timestamp into a compact byte array representation. It can be converted back by
+   * {@link SparseVectorTimestamp#fromBytes(byte[])} method.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Reads sparse vector timestamp starting at the current position of the given buffer and advances
+   * its position. It is supposed that timestamp was written by {@link #writeTo(ByteBuffer)} method.
+   *
+   * @throws IllegalArgumentException if buffer contains malformed vector timestamp
+   * @throws java.nio.BufferUnderflowException if buffer ends before the end of vector timestamp
+   */
+  public static SparseVectorTimestamp readFrom(ByteBuffer buffer) {
+    int size = VarInts.readNonNegativeInt(buffer);
+    if (size > buffer.remaining() / 2)
+      throw new IllegalArgumentException("Malformed vector timestamp size.");
+    int[] processIds = new int[size];
+    long[] timestamps = new long[size];
+    long processId = -1;
+    for (int i = 0; i < size; i++) {
+      long processIdGap = VarInts.read(buffer);
+      timestamps[i] = VarInts.read(buffer);
+      if (processIdGap < 0 || processIdGap >= Integer.MAX_VALUE - processId || timestamps[i] == 0)
+        throw new IllegalArgumentException("Malformed vector timestamp entry.");
+      processId += processIdGap + 1;
+      processIds[i] = (int) processId;
+    }
+    return new SparseVectorTimestamp(processIds, timestamps);
+  }
+
+  /**
+   * Writes compact representation of this timestamp at the current position of the given buffer
+   * and advances its position. Each entry is written as variable length encoded gap from the
+   * previous process id followed by variable length encoded time value. Number of written bytes is
+   * equal to {@link #serializedSize()}.
+   *
+   * @throws java.nio.BufferOverflowException if there is insufficient space in the buffer
+   */
+  public void writeTo(ByteBuffer buffer) {
+    VarInts.write(buffer, processIds.length);
+    int previousProcessId = -1;
+    for (int i = 0; i < processIds.length; i++) {
+      VarInts.write(buffer, processIds[i] - previousProcessId - 1);
+      VarInts.write(buffer, timestamps[i]);
+      previousProcessId = processIds[i];
+    }
+  }
+
+  /**
+   * Returns number of bytes taken by compact representation of this timestamp.
+   *
+   * @see #writeTo(ByteBuffer)
+   */
+  public int serializedSize() {
+    int size = VarInts.sizeOf(processIds.length);
+    int previousProcessId = -1;
+    for (int i = 0; i < processIds.length; i++) {
+      size += VarInts.sizeOf(processIds[i] - previousProcessId - 1);
+      size += VarInts.sizeOf(timestamps[i]);
+      previousProcessId = processIds[i];
+    }
+    return size;
+  }
+
+  private static void checkProcessId(int processId) {
+    if (processId < 0)
+      throw new IllegalArgumentException("Process id should be non-negative.");
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SparseVectorTimestamp that = (SparseVectorTimestamp) o;
+    return Arrays.equals(processIds, that.processIds) && Arrays.equals(timestamps, that.timestamps);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(processIds) + Arrays.hashCode(timestamps);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < processIds.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(processIds[i]).append('=').append(timestamps[i]);
+    }
+    return sb.append('}').toString();
+  }
+}
@@ -0,0 +1,26 @@
+package com.antonkharenko.logicalclocks;
+
+/**
+ * Source of physical time used by clocks which combine logical and physical time. It allows to
+ * substitute system clock with deterministic time in tests or simulations.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.HybridLogicalClock
+ */
+public interface TimeSource {
+
+  /**
+   * Time source backed by {@link System#currentTimeMillis()}.
+   */
+  TimeSource SYSTEM = new TimeSource() {
+    @Override
+    public long currentTimeMillis() {
+      return System.currentTimeMillis();
+    }
+  };
+
+  /**
+   * Returns current physical time in milliseconds since the epoch.
+   */
+  long currentTimeMillis();
+}
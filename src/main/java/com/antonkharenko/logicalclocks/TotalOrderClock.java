@@ -0,0 +1,121 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class implements totally ordered logical clock abstraction. It works the same way as
+ * {@link LogicalClock}, but its timestamps also carry id of the local node, so timestamps of
+ * different nodes never collide.
+ *
+ * <p>
+ * This implementation provides methods to store local timestamp and update it in a thread safe and
+ * non-blocking way. Clock value is kept in a single atomic long in the representation of
+ * {@link TotalOrderTimestamp#toLong()} with the local node id in its lower bits and methods which
+ * operate on long values never allocate.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.TotalOrderTimestamp
+ */
+public class TotalOrderClock {
+
+  private final AtomicLong time;
+  private final int nodeId;
+  private final int nodeBits;
+  private final long increment;
+
+  /**
+   * Creates instance of totally ordered clock for the given node id with default number of node
+   * bits.
+   *
+   * @see TotalOrderTimestamp#DEFAULT_NODE_BITS
+   */
+  public TotalOrderClock(int nodeId) {
+    this(nodeId, TotalOrderTimestamp.DEFAULT_NODE_BITS);
+  }
+
+  /**
+   * Creates instance of totally ordered clock for the given node id and number of lower bits taken
+   * by node id.
+   */
+  public TotalOrderClock(int nodeId, int nodeBits) {
+    TotalOrderTimestamp.checkNodeId(nodeId, nodeBits);
+    this.time = new AtomicLong(nodeId);
+    this.nodeId = nodeId;
+    this.nodeBits = nodeBits;
+    this.increment = 1L << nodeBits;
+  }
+
+  /**
+   * Returns current value of the clock.
+   */
+  public TotalOrderTimestamp time() {
+    return TotalOrderTimestamp.fromLong(timeAsLong(), nodeBits);
+  }
+
+  /**
+   * Returns current value of the clock in its long representation.
+   *
+   * @see TotalOrderTimestamp#fromLong(long, int)
+   */
+  public long timeAsLong() {
+    return time.get();
+  }
+
+  /**
+   * Increments the clock time and returns newly set value of the clock.
+   *
+   * @return New value of the clock.
+   */
+  public TotalOrderTimestamp tick() {
+    return TotalOrderTimestamp.fromLong(tickAsLong(), nodeBits);
+  }
+
+  /**
+   * Increments the clock time and returns newly set value of the clock in its long representation.
+   * It is done with a single atomic addition and doesn't allocate.
+   *
+   * @return New value of the clock.
+   * @see TotalOrderTimestamp#fromLong(long, int)
+   */
+  public long tickAsLong() {
+    return time.addAndGet(increment);
+  }
+
+  /**
+   * Increments the value of the clock taking into account that provided timestamp happens before
+   * that moment. Returns new value of the clock which happens after previous value of the clock and
+   * provided timestamp.
+   *
+   * @param happensBeforeTimestamp timestamp value which happens in the past
+   * @return New value of the clock.
+   */
+  public TotalOrderTimestamp tick(TotalOrderTimestamp happensBeforeTimestamp) {
+    if (happensBeforeTimestamp.nodeBits() != nodeBits)
+      throw new IllegalArgumentException("Timestamps node bits do not match.");
+    return TotalOrderTimestamp.fromLong(tickAsLong(happensBeforeTimestamp.toLong()), nodeBits);
+  }
+
+  /**
+   * Increments the value of the clock taking into account that provided timestamp happens before
+   * that moment. Returns new value of the clock which counter is bigger than counters of previous
+   * value of the clock and provided timestamp. Timestamps are given in their long representation
+   * and this method doesn't allocate.
+   *
+   * @param happensBeforeTimestamp long value of timestamp which happens in the past
+   * @return New value of the clock.
+   * @see TotalOrderTimestamp#fromLong(long, int)
+   */
+  public long tickAsLong(long happensBeforeTimestamp) {
+    long previousTimestamp, nextTimestamp;
+    do {
+      previousTimestamp = time.get();
+      if (LogicalTimestamp.compare(previousTimestamp, happensBeforeTimestamp) > 0) {
+        // Counter of the clock is not behind, so incremented counter is ahead of the timestamp
+        return time.addAndGet(increment);
+      }
+      nextTimestamp = ((happensBeforeTimestamp & ~TotalOrderTimestamp.nodeMask(nodeBits))
+          + increment) | nodeId;
+    } while (!time.compareAndSet(previousTimestamp, nextTimestamp));
+    return nextTimestamp;
+  }
+}
@@ -0,0 +1,171 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Serializable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * This class represents specific time value of totally ordered logical clock at the given moment of
+ * time. This class is immutable. In compare to {@link LogicalTimestamp} it also keeps id of the
+ * node which produced the timestamp, so timestamps of different nodes are never equal and all
+ * events are totally ordered in a way consistent with causality:
+ *
+ * <pre>
+ * E1 -> E2 => timestamp(E1) < timestamp(E2), and
+ * E1 != E2 => timestamp(E1) != timestamp(E2)
+ * </pre>
+ *
+ * <p>
+ * Timestamp is packed into a single long value: upper bits keep logical counter and lower
+ * {@code nodeBits} bits keep node id, so timestamps are compared by a single comparison of their
+ * long values in cyclic time as it is done by {@link LogicalTimestamp#compare(long, long)}. It makes
+ * long representation usable as a unique and sortable key, e.g. for merging of logs.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.TotalOrderClock
+ */
+public final class TotalOrderTimestamp implements Comparable<TotalOrderTimestamp>, Serializable {
+
+  private static final long serialVersionUID = 2868420165719640347L;
+
+  /**
+   * Default number of lower bits taken by node id.
+   */
+  public static final int DEFAULT_NODE_BITS = 16;
+
+  private final long time;
+  private final int nodeBits;
+
+  private TotalOrderTimestamp(long time, int nodeBits) {
+    this.time = time;
+    this.nodeBits = nodeBits;
+  }
+
+  /**
+   * Creates timestamp with the given logical counter and node id.
+   *
+   * @param counter logical counter in the range [0, 2^(64 - nodeBits))
+   * @param nodeId node id in the range [0, 2^nodeBits)
+   * @param nodeBits number of lower bits taken by node id in the range [1, 63]
+   */
+  public static TotalOrderTimestamp of(long counter, int nodeId, int nodeBits) {
+    checkNodeId(nodeId, nodeBits);
+    if (counter >>> (Long.SIZE - nodeBits) != 0)
+      throw new IllegalArgumentException("Counter is out of range.");
+    return new TotalOrderTimestamp(counter << nodeBits | nodeId, nodeBits);
+  }
+
+  /**
+   * Converts given long value into corresponding timestamp. It is supposed that given long was
+   * produced by {@link TotalOrderTimestamp#toLong()} method of timestamp with the same number of
+   * node bits.
+   */
+  public static TotalOrderTimestamp fromLong(long longValue, int nodeBits) {
+    checkNodeBits(nodeBits);
+    return new TotalOrderTimestamp(longValue, nodeBits);
+  }
+
+  /**
+   * Converts this timestamp into a long value. It can be converted back by
+   * {@link TotalOrderTimestamp#fromLong(long, int)} method.
+   */
+  public long toLong() {
+    return time;
+  }
+
+  /**
+   * Returns logical counter part of this timestamp.
+   */
+  public long counter() {
+    return time >>> nodeBits;
+  }
+
+  /**
+   * Returns node id part of this timestamp.
+   */
+  public int nodeId() {
+    return (int) (time & nodeMask(nodeBits));
+  }
+
+  /**
+   * Returns number of lower bits taken by node id.
+   */
+  public int nodeBits() {
+    return nodeBits;
+  }
+
+  /**
+   * Returns logical counter part of this timestamp as logical timestamp.
+   */
+  public LogicalTimestamp toLogicalTimestamp() {
+    return LogicalTimestamp.fromLong(counter());
+  }
+
+  /**
+   * Returns true if the given timestamp is smaller than this timestamp.
+   */
+  public boolean isBefore(TotalOrderTimestamp timestamp) {
+    return compareTo(timestamp) < 0;
+  }
+
+  /**
+   * Returns true if the given timestamp is bigger than this timestamp.
+   */
+  public boolean isAfter(TotalOrderTimestamp timestamp) {
+    return compareTo(timestamp) > 0;
+  }
+
+  /**
+   * Compares two timestamps by logical counter and then by node id in cyclic time.
+   *
+   * @param that the timestamp to be compared.
+   * @return the value {@code 0} if this timestamp is equal to the argument timestamp; a value less
+   *         than {@code 0} if this timestamp is smaller than the argument timestamp; and a value
+   *         greater than {@code 0} if this timestamp is bigger than the argument timestamp.
+   * @throws IllegalArgumentException if timestamps have different number of node bits
+   */
+  @Override
+  public int compareTo(@Nonnull TotalOrderTimestamp that) {
+    if (this.nodeBits != that.nodeBits)
+      throw new IllegalArgumentException("Timestamps node bits do not match.");
+    return LogicalTimestamp.compare(this.time, that.time);
+  }
+
+  static long nodeMask(int nodeBits) {
+    return (1L << nodeBits) - 1;
+  }
+
+  static void checkNodeBits(int nodeBits) {
+    if (nodeBits <= 0 || nodeBits >= Long.SIZE)
+      throw new IllegalArgumentException("Node bits should be in the range [1, 63].");
+  }
+
+  static void checkNodeId(int nodeId, int nodeBits) {
+    checkNodeBits(nodeBits);
+    if (nodeId < 0 || nodeId > nodeMask(nodeBits))
+      throw new IllegalArgumentException("Node id is out of range.");
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    TotalOrderTimestamp that = (TotalOrderTimestamp) o;
+    return this.time == that.time && this.nodeBits == that.nodeBits;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (int) (time ^ (time >>> 32)) + nodeBits;
+  }
+
+  @Override
+  public String toString() {
+    return counter() + "@" + nodeId();
+  }
+}
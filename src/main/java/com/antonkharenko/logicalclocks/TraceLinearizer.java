@@ -0,0 +1,254 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This class merges trace segments of processes into a single stream of events ordered by a linear
+ * extension of happens before relation, i.e. each event is emitted after all events which happen
+ * before it, while order of concurrent events is chosen deterministically. Segment with the index
+ * {@code i} in the given list contains events of process {@code i} in the order in which they
+ * happened, as written by {@link TraceSegmentWriter}.
+ *
+ * <p>
+ * Events are merged by a key which grows along happens before relation: Lamport time for Lamport
+ * traces and sum of entries for vector traces, since vector timestamp of an event which happens
+ * after another one is not smaller in any entry and bigger in at least one. Events with equal keys
+ * are concurrent and emitted in the order of process indices. This holds only while entries don't
+ * wrap around, so records with negative Lamport time, negative vector entries or overflowing sum
+ * of entries are rejected.
+ *
+ * <p>
+ * Merge holds only the next event of each process in memory and reads segments through
+ * {@link TraceSegmentReader} windows, so memory usage doesn't depend on the size of the trace. This
+ * class is not thread safe.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.TraceSegmentReader
+ */
+public final class TraceLinearizer<T> implements Closeable {
+
+  private static final Comparator<Event<?>> EVENT_ORDER = new Comparator<Event<?>>() {
+    @Override
+    public int compare(Event<?> event1, Event<?> event2) {
+      int comparison = Long.compare(event1.key, event2.key);
+      return comparison != 0 ? comparison : Integer.compare(event1.processIndex,
+          event2.processIndex);
+    }
+  };
+
+  private final TraceSegmentReader[] readers;
+  private final boolean vectorTrace;
+  private final PriorityQueue<Event<T>> heads;
+  private final long[] lastKeys;
+
+  private TraceLinearizer(TraceSegmentReader[] readers, boolean vectorTrace) throws IOException {
+    this.readers = readers;
+    this.vectorTrace = vectorTrace;
+    this.heads = new PriorityQueue<>(Math.max(1, readers.length), EVENT_ORDER);
+    this.lastKeys = new long[readers.length];
+    for (int i = 0; i < readers.length; i++) {
+      readHead(i, 0L);
+    }
+  }
+
+  /**
+   * Opens linearizer of the trace stamped with vector timestamps.
+   *
+   * @param segments segment files of processes in the order of process indices
+   * @throws IOException if one of the files can not be opened
+   */
+  public static TraceLinearizer<VectorTimestamp> ofVectorTrace(List<Path> segments)
+      throws IOException {
+    return ofVectorTrace(segments, TraceSegmentReader.DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Opens linearizer of the trace stamped with vector timestamps which maps segments by windows of
+   * the given size.
+   *
+   * @param segments segment files of processes in the order of process indices
+   * @param windowSize size of the mapped window of each segment in bytes
+   * @throws IOException if one of the files can not be opened
+   */
+  public static TraceLinearizer<VectorTimestamp> ofVectorTrace(List<Path> segments,
+      int windowSize) throws IOException {
+    return open(segments, windowSize, true);
+  }
+
+  /**
+   * Opens linearizer of the trace stamped with Lamport timestamps.
+   *
+   * @param segments segment files of processes in the order of process indices
+   * @throws IOException if one of the files can not be opened
+   */
+  public static TraceLinearizer<LogicalTimestamp> ofLamportTrace(List<Path> segments)
+      throws IOException {
+    return ofLamportTrace(segments, TraceSegmentReader.DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Opens linearizer of the trace stamped with Lamport timestamps which maps segments by windows of
+   * the given size.
+   *
+   * @param segments segment files of processes in the order of process indices
+   * @param windowSize size of the mapped window of each segment in bytes
+   * @throws IOException if one of the files can not be opened
+   */
+  public static TraceLinearizer<LogicalTimestamp> ofLamportTrace(List<Path> segments,
+      int windowSize) throws IOException {
+    return open(segments, windowSize, false);
+  }
+
+  private static <T> TraceLinearizer<T> open(List<Path> segments, int windowSize,
+      boolean vectorTrace) throws IOException {
+    TraceSegmentReader[] readers = new TraceSegmentReader[segments.size()];
+    try {
+      for (int i = 0; i < readers.length; i++) {
+        readers[i] = new TraceSegmentReader(segments.get(i), windowSize);
+      }
+      return new TraceLinearizer<>(readers, vectorTrace);
+    } catch (IOException | RuntimeException e) {
+      closeAll(readers);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the next event of the linear extension or {@code null} if all segments are read.
+   *
+   * @throws IllegalArgumentException if a segment is malformed, its events are not ordered or their
+   *         timestamps wrap around
+   * @throws IOException if an I/O error occurs
+   */
+  public Event<T> next() throws IOException {
+    Event<T> event = heads.poll();
+    if (event != null) {
+      readHead(event.processIndex, event.sequence + 1);
+    }
+    return event;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readHead(int processIndex, long sequence) throws IOException {
+    ByteBuffer record = readers[processIndex].nextRecord();
+    if (record == null)
+      return;
+    Object timestamp;
+    long key;
+    try {
+      if (vectorTrace) {
+        VectorTimestamp vectorTimestamp = VectorTimestamp.readFrom(record);
+        timestamp = vectorTimestamp;
+        key = 0L;
+        for (long entry : vectorTimestamp.entries()) {
+          key += entry;
+          if (entry < 0 || key < 0)
+            throw new IllegalArgumentException("Vector timestamp of process " + processIndex
+                + " is negative or wraps around.");
+        }
+      } else {
+        LogicalTimestamp logicalTimestamp = LogicalTimestamp.readFrom(record);
+        timestamp = logicalTimestamp;
+        key = logicalTimestamp.toLong();
+        if (key < 0)
+          throw new IllegalArgumentException("Lamport timestamp of process " + processIndex
+              + " is negative or wraps around.");
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Malformed trace record of process " + processIndex
+          + ".");
+    }
+    if (sequence > 0 && key <= lastKeys[processIndex])
+      throw new IllegalArgumentException("Events of process " + processIndex
+          + " are not in happens before order.");
+    lastKeys[processIndex] = key;
+    byte[] payload = new byte[record.remaining()];
+    record.get(payload);
+    heads.add(new Event<>(processIndex, sequence, (T) timestamp, payload, key));
+  }
+
+  /**
+   * Closes all segment files.
+   */
+  @Override
+  public void close() throws IOException {
+    closeAll(readers);
+  }
+
+  private static void closeAll(TraceSegmentReader[] readers) throws IOException {
+    IOException exception = null;
+    for (TraceSegmentReader reader : readers) {
+      try {
+        if (reader != null) {
+          reader.close();
+        }
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    if (exception != null)
+      throw exception;
+  }
+
+  /**
+   * Event of the trace. This class is immutable.
+   */
+  public static final class Event<T> {
+
+    private final int processIndex;
+    private final long sequence;
+    private final T timestamp;
+    private final byte[] payload;
+    private final long key;
+
+    private Event(int processIndex, long sequence, T timestamp, byte[] payload, long key) {
+      this.processIndex = processIndex;
+      this.sequence = sequence;
+      this.timestamp = timestamp;
+      this.payload = payload;
+      this.key = key;
+    }
+
+    /**
+     * Returns index of the process which produced the event.
+     */
+    public int processIndex() {
+      return processIndex;
+    }
+
+    /**
+     * Returns zero-based position of the event in the segment of its process.
+     */
+    public long sequence() {
+      return sequence;
+    }
+
+    /**
+     * Returns timestamp of the event.
+     */
+    public T timestamp() {
+      return timestamp;
+    }
+
+    /**
+     * Returns copy of the payload of the event.
+     */
+    public byte[] payload() {
+      return Arrays.copyOf(payload, payload.length);
+    }
+
+    @Override
+    public String toString() {
+      return "Event{processIndex=" + processIndex + ", sequence=" + sequence + ", timestamp="
+          + timestamp + "}";
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads records of a trace segment file written by {@link TraceSegmentWriter}. File is
+ * memory-mapped by windows of bounded size which slide forward as records are read, so files
+ * larger than the heap or the address space can be read. Window is extended to fit a record which
+ * is larger than the window size.
+ *
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.TraceSegmentWriter
+ */
+public final class TraceSegmentReader implements Closeable {
+
+  /**
+   * Default size of the mapped window in bytes.
+   */
+  public static final int DEFAULT_WINDOW_SIZE = 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final int windowSize;
+  private ByteBuffer window = ByteBuffer.allocate(0);
+  private long windowPosition;
+
+  /**
+   * Opens the given trace segment file for reading.
+   *
+   * @throws IOException if the file can not be opened
+   */
+  public TraceSegmentReader(Path file) throws IOException {
+    this(file, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Opens the given trace segment file for reading with mapped window of the given size.
+   *
+   * @throws IOException if the file can not be opened
+   */
+  public TraceSegmentReader(Path file, int windowSize) throws IOException {
+    if (windowSize <= 0)
+      throw new IllegalArgumentException("Window size should be positive.");
+    this.windowSize = windowSize;
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      this.fileSize = channel.size();
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns body of the next record, i.e. encoded timestamp followed by payload, or {@code null} if
+   * the end of the file is reached. Returned buffer is a view of the mapped window which is valid
+   * only until the next call of this method.
+   *
+   * @throws IllegalArgumentException if the file ends in the middle of a record
+   * @throws IOException if an I/O error occurs
+   */
+  public ByteBuffer nextRecord() throws IOException {
+    long position = windowPosition + window.position();
+    if (position >= fileSize)
+      return null;
+    moveTo(position, (int) Math.min(VarInts.MAX_LONG_BYTES, fileSize - position));
+    int bodySize;
+    try {
+      bodySize = VarInts.readNonNegativeInt(window);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated trace record.");
+    }
+    long bodyPosition = windowPosition + window.position();
+    if (bodySize > fileSize - bodyPosition)
+      throw new IllegalArgumentException("Truncated trace record.");
+    moveTo(bodyPosition, bodySize);
+    ByteBuffer body = window.slice();
+    body.limit(bodySize);
+    window.position(window.position() + bodySize);
+    return body;
+  }
+
+  /**
+   * Positions the window at the given file position, mapping the next window if less than the
+   * given number of bytes is mapped after it.
+   */
+  private void moveTo(long position, int requiredBytes) throws IOException {
+    if (position + requiredBytes > windowPosition + window.limit()) {
+      long size = Math.min(Math.max(windowSize, requiredBytes), fileSize - position);
+      window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      windowPosition = position;
+    }
+    window.position((int) (position - windowPosition));
+  }
+
+  /**
+   * Closes the file. Mapped windows are released by the garbage collector.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
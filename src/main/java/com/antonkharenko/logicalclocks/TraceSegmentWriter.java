@@ -0,0 +1,139 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class appends events of a single process to a trace segment file. Each event is written as
+ * a record which consists of variable length size of its body, encoded timestamp and payload
+ * bytes. Events should be appended in the order in which they happen in the process, so that
+ * {@link TraceLinearizer} can merge segments of different processes.
+ *
+ * <p>
+ * Records are buffered in memory and written to the file when the buffer is full, on
+ * {@link #flush()} and on {@link #close()}. Records larger than the buffer are written to the file
+ * directly, so the buffer keeps its configured size. This class is not thread safe.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.TraceSegmentReader
+ */
+public final class TraceSegmentWriter implements Closeable {
+
+  /**
+   * Default size of the write buffer in bytes.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private static final int LOGICAL_TIMESTAMP_BYTES = 8;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+
+  /**
+   * Creates writer which appends records to the given file, which is created if it doesn't exist.
+   *
+   * @throws IOException if the file can not be opened
+   */
+  public TraceSegmentWriter(Path file) throws IOException {
+    this(file, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates writer which appends records to the given file, which is created if it doesn't exist,
+   * using write buffer of the given size.
+   *
+   * @throws IOException if the file can not be opened
+   */
+  public TraceSegmentWriter(Path file, int bufferSize) throws IOException {
+    if (bufferSize <= 0)
+      throw new IllegalArgumentException("Buffer size should be positive.");
+    this.buffer = ByteBuffer.allocate(bufferSize);
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Appends event stamped with the given vector timestamp.
+   */
+  public void append(VectorTimestamp timestamp, byte[] payload) throws IOException {
+    ByteBuffer record = reserve(timestamp.serializedSize(), payload.length);
+    timestamp.writeTo(record);
+    complete(record, payload);
+  }
+
+  /**
+   * Appends event stamped with the given Lamport timestamp.
+   */
+  public void append(LogicalTimestamp timestamp, byte[] payload) throws IOException {
+    ByteBuffer record = reserve(LOGICAL_TIMESTAMP_BYTES, payload.length);
+    timestamp.writeTo(record);
+    complete(record, payload);
+  }
+
+  /**
+   * Writes size of the record body and returns buffer to write the timestamp to. It is the write
+   * buffer if the whole record fits into it, otherwise it is a temporary buffer for the record
+   * header which is written to the file together with the payload by
+   * {@link #complete(ByteBuffer, byte[])}.
+   */
+  private ByteBuffer reserve(int timestampSize, int payloadSize) throws IOException {
+    if (!channel.isOpen())
+      throw new IllegalStateException("Writer is closed.");
+    int bodySize = timestampSize + payloadSize;
+    int recordSize = VarInts.sizeOf(bodySize) + bodySize;
+    ByteBuffer record = buffer;
+    if (recordSize > buffer.remaining()) {
+      flush();
+      if (recordSize > buffer.capacity()) {
+        record = ByteBuffer.allocate(VarInts.sizeOf(bodySize) + timestampSize);
+      }
+    }
+    VarInts.write(record, bodySize);
+    return record;
+  }
+
+  private void complete(ByteBuffer record, byte[] payload) throws IOException {
+    if (record == buffer) {
+      buffer.put(payload);
+    } else {
+      record.flip();
+      write(record);
+      write(ByteBuffer.wrap(payload));
+    }
+  }
+
+  /**
+   * Writes buffered records to the file.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  public void flush() throws IOException {
+    buffer.flip();
+    write(buffer);
+    buffer.clear();
+  }
+
+  private void write(ByteBuffer source) throws IOException {
+    while (source.hasRemaining()) {
+      channel.write(source);
+    }
+  }
+
+  /**
+   * Writes buffered records and closes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    if (channel.isOpen()) {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+}
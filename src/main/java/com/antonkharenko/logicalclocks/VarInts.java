@@ -0,0 +1,68 @@
+package com.antonkharenko.logicalclocks;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Utility methods for variable length encoding of long values. Values are written as unsigned
+ * little-endian base 128 groups of 7 bits, where highest bit of each byte marks that more bytes
+ * follow. Small non-negative values take one byte while any long value takes at most ten bytes.
+ *
+ * @author Anton Kharenko
+ */
+final class VarInts {
+
+  /**
+   * Maximum number of bytes taken by encoded long value.
+   */
+  static final int MAX_LONG_BYTES = 10;
+
+  private VarInts() {
+  }
+
+  /**
+   * Returns number of bytes which will be taken by the given value after encoding.
+   */
+  static int sizeOf(long value) {
+    return (Long.SIZE - 1 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+  }
+
+  /**
+   * Writes given value at the current position of the buffer and advances position.
+   */
+  static void write(ByteBuffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Reads value at the current position of the buffer and advances position.
+   *
+   * @throws IllegalArgumentException if encoded value doesn't fit into long
+   */
+  static long read(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed variable length value.");
+  }
+
+  /**
+   * Reads non-negative int value at the current position of the buffer and advances position.
+   *
+   * @throws IllegalArgumentException if encoded value doesn't fit into non-negative int
+   */
+  static int readNonNegativeInt(ByteBuffer buffer) {
+    long value = read(buffer);
+    if (value < 0 || value > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Malformed variable length value.");
+    return (int) value;
+  }
+}
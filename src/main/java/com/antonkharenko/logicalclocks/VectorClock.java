@@ -1,5 +1,6 @@
 package com.antonkharenko.logicalclocks;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -12,13 +13,37 @@ import java.util.concurrent.atomic.AtomicReference;
  * This implementation provides methods to store and update local vector time in a thread safe and
  * non-blocking way.
  *
+ * <p>
+ * Besides full timestamps the clock supports differential exchange in the style of Singhal and
+ * Kshemkalyani: it remembers the last timestamp sent to each destination and
+ * {@link #tickDelta(int)} returns only the entries which changed since then, while
+ * {@link #tick(VectorTimestampDelta)} merges such delta on the receiving side. Differential
+ * exchange requires FIFO channels: deltas sent to the same destination should be delivered in the
+ * same order as they were produced and none of them should be lost. If channel is re-established,
+ * {@link #resetDelta(int)} makes the next delta to this destination complete.
+ *
+ * <p>
+ * Sends to the same destination are serialized with a per-destination lock, so the last sent
+ * timestamp is always the base of the next delta, while sends to different destinations and other
+ * updates of the clock stay non-blocking. The clock keeps the full last sent timestamp per
+ * destination, which takes O(N^2) memory and an O(N) scan per send, instead of O(N) last update
+ * and last sent arrays of the original scheme which would require all updates of the clock to be
+ * serialized. This state is allocated on the first use of differential exchange, so clocks which
+ * exchange only full timestamps don't pay for it.
+ *
+ * <p>
+ * Optional {@link ClockListener} is notified about retries of contended updates, merges of received
+ * timestamps and sizes of exchanged vectors.
+ *
  * @author Anton Kharenko
  * @see com.antonkharenko.logicalclocks.VectorTimestamp
  */
 public class VectorClock {
 
   private final AtomicReference<VectorTimestamp> timeReference = new AtomicReference<>();
+  private final AtomicReference<DeltaState> deltaStateReference = new AtomicReference<>();
   private final int processIndex;
+  private final ClockListener listener;
 
   /**
    * Creates instance of logical clock with default initial timestamps and given local process index
@@ -33,8 +58,21 @@ public class VectorClock {
    * index.
    */
   public VectorClock(int processIndex, VectorTimestamp initialTimestamp) {
+    this(processIndex, initialTimestamp, null);
+  }
+
+  /**
+   * Creates instance of logical clock with the given initial timestamps, given local process index
+   * and listener.
+   *
+   * @param processIndex index of the local process
+   * @param initialTimestamp initial timestamp of the clock
+   * @param listener listener to notify about clock updates or {@code null}
+   */
+  public VectorClock(int processIndex, VectorTimestamp initialTimestamp, ClockListener listener) {
     this.timeReference.set(initialTimestamp);
     this.processIndex = processIndex;
+    this.listener = listener;
   }
 
   /**
@@ -51,10 +89,15 @@ public class VectorClock {
    */
   public VectorTimestamp tick() {
     VectorTimestamp previousTimestamp, nextTimestamp;
+    int retries = -1;
     do {
+      retries++;
       previousTimestamp = timeReference.get();
       nextTimestamp = previousTimestamp.nextTimestamp(processIndex);
     } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    if (listener != null && retries > 0) {
+      listener.onContention(retries);
+    }
     return nextTimestamp;
   }
 
@@ -68,10 +111,173 @@ public class VectorClock {
    */
   public VectorTimestamp tick(VectorTimestamp happensBeforeTimestamp) {
     VectorTimestamp previousTimestamp, nextTimestamp;
+    int retries = -1;
     do {
+      retries++;
       previousTimestamp = timeReference.get();
       nextTimestamp = previousTimestamp.nextTimestamp(processIndex, happensBeforeTimestamp);
     } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    if (listener != null) {
+      listener.onVectorReceived(happensBeforeTimestamp.length());
+      notifyMerge(retries, previousTimestamp, nextTimestamp);
+    }
+    return nextTimestamp;
+  }
+
+  /**
+   * Increments the value of the clock once taking into account that all provided timestamps happen
+   * before that moment, e.g. when a batch of messages is received at once. Timestamps are merged
+   * before the update of the clock, so the clock is updated with a single atomic operation.
+   *
+   * @param happensBeforeTimestamps timestamp values which happen in the past
+   * @return New value of the clock.
+   */
+  public VectorTimestamp tick(VectorTimestamp[] happensBeforeTimestamps) {
+    if (happensBeforeTimestamps.length == 0)
+      return tick();
+    return tickMerged(happensBeforeTimestamps, VectorTimestamp.merge(happensBeforeTimestamps));
+  }
+
+  /**
+   * Increments the value of the clock once taking into account that all provided timestamps happen
+   * before that moment. Timestamps are merged by parallel tree reduction in the given fork/join
+   * pool, which pays off only for large batches.
+   *
+   * @param happensBeforeTimestamps timestamp values which happen in the past
+   * @param pool fork/join pool to merge timestamps in
+   * @return New value of the clock.
+   * @see #tick(VectorTimestamp[])
+   */
+  public VectorTimestamp tick(VectorTimestamp[] happensBeforeTimestamps, ForkJoinPool pool) {
+    if (happensBeforeTimestamps.length == 0)
+      return tick();
+    return tickMerged(happensBeforeTimestamps,
+        VectorTimestamp.merge(happensBeforeTimestamps, pool));
+  }
+
+  private VectorTimestamp tickMerged(VectorTimestamp[] happensBeforeTimestamps,
+      VectorTimestamp mergedTimestamp) {
+    VectorTimestamp previousTimestamp, nextTimestamp;
+    int retries = -1;
+    do {
+      retries++;
+      previousTimestamp = timeReference.get();
+      nextTimestamp = previousTimestamp.nextTimestamp(processIndex, mergedTimestamp);
+    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    if (listener != null) {
+      for (VectorTimestamp happensBeforeTimestamp : happensBeforeTimestamps) {
+        listener.onVectorReceived(happensBeforeTimestamp.length());
+      }
+      notifyMerge(retries, previousTimestamp, nextTimestamp);
+    }
+    return nextTimestamp;
+  }
+
+  /**
+   * Increments the clock time for the send event to the given destination and returns difference
+   * between newly set value of the clock and the value previously sent to the same destination.
+   *
+   * @param destinationIndex index of the process the message is sent to
+   * @return Entries of the new value of the clock changed since the last send to the destination.
+   */
+  public VectorTimestampDelta tickDelta(int destinationIndex) {
+    checkIndex(destinationIndex);
+    DeltaState deltaState = deltaState();
+    VectorTimestampDelta delta;
+    synchronized (deltaState.sentLocks[destinationIndex]) {
+      // Tick and update of the base under the same lock, so the base is never moved backwards
+      VectorTimestamp nextTimestamp = tick();
+      delta = nextTimestamp.deltaFrom(deltaState.sentTimestamps[destinationIndex]);
+      deltaState.sentTimestamps[destinationIndex] = nextTimestamp;
+    }
+    if (listener != null) {
+      listener.onVectorSent(delta.size());
+    }
+    return delta;
+  }
+
+  /**
+   * Increments the value of the clock taking into account that timestamp described by the provided
+   * delta happens before that moment. It has the same effect as
+   * {@link #tick(VectorTimestamp)} with the full timestamp of the sender, given that all previous
+   * deltas from the sender were received in order.
+   *
+   * @param happensBeforeDelta delta received from {@link #tickDelta(int)} of the sender
+   * @return New value of the clock.
+   */
+  public VectorTimestamp tick(VectorTimestampDelta happensBeforeDelta) {
+    VectorTimestamp previousTimestamp, nextTimestamp;
+    int retries = -1;
+    do {
+      retries++;
+      previousTimestamp = timeReference.get();
+      nextTimestamp = previousTimestamp.nextTimestamp(processIndex, happensBeforeDelta);
+    } while (!timeReference.compareAndSet(previousTimestamp, nextTimestamp));
+    if (listener != null) {
+      listener.onVectorReceived(happensBeforeDelta.size());
+      notifyMerge(retries, previousTimestamp, nextTimestamp);
+    }
     return nextTimestamp;
   }
+
+  /**
+   * Forgets the value last sent to the given destination, so the next delta to it contains all
+   * non-initial entries of the clock.
+   */
+  public void resetDelta(int destinationIndex) {
+    checkIndex(destinationIndex);
+    DeltaState deltaState = deltaStateReference.get();
+    if (deltaState == null)
+      return;
+    synchronized (deltaState.sentLocks[destinationIndex]) {
+      deltaState.sentTimestamps[destinationIndex] = null;
+    }
+  }
+
+  private DeltaState deltaState() {
+    DeltaState deltaState = deltaStateReference.get();
+    if (deltaState == null) {
+      deltaStateReference.compareAndSet(null, new DeltaState(timeReference.get().length()));
+      deltaState = deltaStateReference.get();
+    }
+    return deltaState;
+  }
+
+  private void notifyMerge(int retries, VectorTimestamp previousTimestamp,
+      VectorTimestamp nextTimestamp) {
+    if (retries > 0) {
+      listener.onContention(retries);
+    }
+    long[] previousEntries = previousTimestamp.entries();
+    long[] nextEntries = nextTimestamp.entries();
+    long advance = 0;
+    for (int i = 0; i < nextEntries.length; i++) {
+      if (i != processIndex) {
+        advance += nextEntries[i] - previousEntries[i];
+      }
+    }
+    listener.onMerge(advance);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= timeReference.get().length())
+      throw new IllegalArgumentException("Index out of bounds.");
+  }
+
+  /**
+   * Timestamps last sent to each destination together with locks which serialize sends to it.
+   */
+  private static final class DeltaState {
+
+    private final VectorTimestamp[] sentTimestamps;
+    private final Object[] sentLocks;
+
+    private DeltaState(int processCount) {
+      this.sentTimestamps = new VectorTimestamp[processCount];
+      this.sentLocks = new Object[processCount];
+      for (int i = 0; i < processCount; i++) {
+        sentLocks[i] = new Object();
+      }
+    }
+  }
 }
@@ -0,0 +1,298 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class tracks retirement of processes and decides when their entries can be removed from
+ * vector timestamps. Process is retired with its final counter, i.e. the value of its own entry at
+ * the last event it produced. Entry of the retired process can be pruned once all live processes
+ * acknowledged timestamps which include the final counter, because from that moment the entry has
+ * the same value in all new timestamps and doesn't affect their comparison.
+ *
+ * <p>
+ * Pruning is advised by {@link #shouldPrune()} when number of prunable entries reaches the size
+ * threshold or when one of them is retired for longer than the age threshold. Each
+ * {@link #prune()} produces {@link Pruning} which maps indices of remaining processes and projects
+ * timestamps to the new vector length. Local clocks should be recreated with projected timestamp
+ * and new index of the local process. Projection of a stale timestamp, which doesn't include final
+ * counter of the pruned process, loses information and its comparison with other projected
+ * timestamps may give wrong result, e.g. report happens before instead of concurrent. Such
+ * timestamps are reported by {@link Pruning#isExact(VectorTimestamp)}.
+ *
+ * <p>
+ * This class is thread safe.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorClock
+ */
+public final class VectorClockPruner {
+
+  private final int sizeThreshold;
+  private final long ageThresholdMillis;
+  private final TimeSource timeSource;
+
+  private int length;
+  private long[] finalCounters;
+  private long[] retiredAtMillis;
+  private BitSet retired;
+  private BitSet[] acknowledgements;
+
+  /**
+   * Creates instance of pruner for the given number of live processes which advises to prune each
+   * prunable entry.
+   */
+  public VectorClockPruner(int processCount) {
+    this(processCount, 1, 0L, TimeSource.SYSTEM);
+  }
+
+  /**
+   * Creates instance of pruner for the given number of live processes with the given thresholds.
+   *
+   * @param processCount number of processes
+   * @param sizeThreshold number of prunable entries which makes pruning advised
+   * @param ageThresholdMillis time since retirement of a prunable entry which makes pruning advised
+   * @param timeSource source of time for age threshold
+   */
+  public VectorClockPruner(int processCount, int sizeThreshold, long ageThresholdMillis,
+      TimeSource timeSource) {
+    if (processCount < 0)
+      throw new IllegalArgumentException("Process count should be non-negative.");
+    if (sizeThreshold <= 0)
+      throw new IllegalArgumentException("Size threshold should be positive.");
+    if (ageThresholdMillis < 0)
+      throw new IllegalArgumentException("Age threshold should be non-negative.");
+    this.sizeThreshold = sizeThreshold;
+    this.ageThresholdMillis = ageThresholdMillis;
+    this.timeSource = timeSource;
+    this.length = processCount;
+    this.finalCounters = new long[processCount];
+    this.retiredAtMillis = new long[processCount];
+    this.retired = new BitSet(processCount);
+    this.acknowledgements = new BitSet[processCount];
+  }
+
+  /**
+   * Returns current length of vector timestamps.
+   */
+  public synchronized int length() {
+    return length;
+  }
+
+  /**
+   * Returns true if the process with the given index is retired, but not pruned yet.
+   */
+  public synchronized boolean isRetired(int processIndex) {
+    checkIndex(processIndex);
+    return retired.get(processIndex);
+  }
+
+  /**
+   * Marks process with the given index as retired. Retired process should not produce events
+   * after the given final counter.
+   *
+   * @param processIndex index of the retired process
+   * @param finalCounter value of the own entry of the process at its last event
+   */
+  public synchronized void retire(int processIndex, long finalCounter) {
+    checkIndex(processIndex);
+    if (retired.get(processIndex))
+      throw new IllegalArgumentException("Process is already retired.");
+    retired.set(processIndex);
+    finalCounters[processIndex] = finalCounter;
+    retiredAtMillis[processIndex] = timeSource.currentTimeMillis();
+    acknowledgements[processIndex] = new BitSet(length);
+  }
+
+  /**
+   * Records that the live process with the given index knows the given timestamp, e.g. it is the
+   * current time of its clock. It acknowledges final counters of all retired processes which are
+   * included into the timestamp.
+   *
+   * @param processIndex index of the acknowledging process
+   * @param timestamp timestamp known by the process
+   */
+  public synchronized void acknowledge(int processIndex, VectorTimestamp timestamp) {
+    checkIndex(processIndex);
+    if (timestamp.length() != length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    long[] entries = timestamp.entries();
+    for (int i = retired.nextSetBit(0); i >= 0; i = retired.nextSetBit(i + 1)) {
+      if (LogicalTimestamp.compare(entries[i], finalCounters[i]) >= 0) {
+        acknowledgements[i].set(processIndex);
+      }
+    }
+  }
+
+  /**
+   * Returns number of retired entries acknowledged by all live processes.
+   */
+  public synchronized int prunableCount() {
+    return prunable().cardinality();
+  }
+
+  /**
+   * Returns true if number of prunable entries reaches the size threshold or one of them is
+   * retired for longer than the age threshold.
+   */
+  public synchronized boolean shouldPrune() {
+    BitSet prunable = prunable();
+    if (prunable.isEmpty())
+      return false;
+    if (prunable.cardinality() >= sizeThreshold)
+      return true;
+    long now = timeSource.currentTimeMillis();
+    for (int i = prunable.nextSetBit(0); i >= 0; i = prunable.nextSetBit(i + 1)) {
+      if (now - retiredAtMillis[i] >= ageThresholdMillis)
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Removes all prunable entries regardless of thresholds.
+   *
+   * @return Mapping of vector timestamps to the new length.
+   */
+  public synchronized Pruning prune() {
+    BitSet prunable = prunable();
+    int[] newIndices = new int[length];
+    int newLength = 0;
+    for (int i = 0; i < length; i++) {
+      newIndices[i] = prunable.get(i) ? -1 : newLength++;
+    }
+    Pruning pruning = new Pruning(newIndices, newLength, finalCounters.clone(), prunable);
+
+    long[] newFinalCounters = new long[newLength];
+    long[] newRetiredAtMillis = new long[newLength];
+    BitSet newRetired = new BitSet(newLength);
+    BitSet[] newAcknowledgements = new BitSet[newLength];
+    for (int i = 0; i < length; i++) {
+      int newIndex = newIndices[i];
+      if (newIndex >= 0 && retired.get(i)) {
+        newRetired.set(newIndex);
+        newFinalCounters[newIndex] = finalCounters[i];
+        newRetiredAtMillis[newIndex] = retiredAtMillis[i];
+        newAcknowledgements[newIndex] = pruning.project(acknowledgements[i]);
+      }
+    }
+    length = newLength;
+    finalCounters = newFinalCounters;
+    retiredAtMillis = newRetiredAtMillis;
+    retired = newRetired;
+    acknowledgements = newAcknowledgements;
+    return pruning;
+  }
+
+  private BitSet prunable() {
+    BitSet prunable = new BitSet(length);
+    for (int i = retired.nextSetBit(0); i >= 0; i = retired.nextSetBit(i + 1)) {
+      // Acknowledgements of retired processes are not needed, since they don't produce events
+      BitSet missing = (BitSet) retired.clone();
+      missing.or(acknowledgements[i]);
+      if (missing.nextClearBit(0) >= length) {
+        prunable.set(i);
+      }
+    }
+    return prunable;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= length)
+      throw new IllegalArgumentException("Index out of bounds.");
+  }
+
+  /**
+   * Result of pruning which maps vector timestamps of the old length to the new length. This class
+   * is immutable.
+   */
+  public static final class Pruning {
+
+    private final int[] newIndices;
+    private final int newLength;
+    private final long[] finalCounters;
+    private final BitSet pruned;
+
+    private Pruning(int[] newIndices, int newLength, long[] finalCounters, BitSet pruned) {
+      this.newIndices = newIndices;
+      this.newLength = newLength;
+      this.finalCounters = finalCounters;
+      this.pruned = pruned;
+    }
+
+    /**
+     * Returns length of vector timestamps before pruning.
+     */
+    public int oldLength() {
+      return newIndices.length;
+    }
+
+    /**
+     * Returns length of vector timestamps after pruning.
+     */
+    public int newLength() {
+      return newLength;
+    }
+
+    /**
+     * Returns new index of the process with the given old index or -1 if its entry is pruned.
+     */
+    public int newIndex(int oldIndex) {
+      if (oldIndex < 0 || oldIndex >= newIndices.length)
+        throw new IllegalArgumentException("Index out of bounds.");
+      return newIndices[oldIndex];
+    }
+
+    /**
+     * Returns true if projection of the given timestamp keeps its relations to other projected
+     * timestamps, i.e. it includes final counters of all pruned processes. Stale timestamps which
+     * don't include them may be reported ordered after projection while they were concurrent.
+     */
+    public boolean isExact(VectorTimestamp timestamp) {
+      checkLength(timestamp);
+      long[] entries = timestamp.entries();
+      for (int i = pruned.nextSetBit(0); i >= 0; i = pruned.nextSetBit(i + 1)) {
+        if (LogicalTimestamp.compare(entries[i], finalCounters[i]) != 0)
+          return false;
+      }
+      return true;
+    }
+
+    /**
+     * Projects the given timestamp of the old length to the new length by removing pruned entries.
+     *
+     * @see #isExact(VectorTimestamp)
+     */
+    public VectorTimestamp project(VectorTimestamp timestamp) {
+      checkLength(timestamp);
+      long[] entries = timestamp.entries();
+      long[] projectedEntries = new long[newLength];
+      for (int i = 0; i < entries.length; i++) {
+        if (newIndices[i] >= 0) {
+          projectedEntries[newIndices[i]] = entries[i];
+        }
+      }
+      return new VectorTimestamp(projectedEntries);
+    }
+
+    private BitSet project(BitSet bits) {
+      BitSet projectedBits = new BitSet(newLength);
+      for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+        if (newIndices[i] >= 0) {
+          projectedBits.set(newIndices[i]);
+        }
+      }
+      return projectedBits;
+    }
+
+    private void checkLength(VectorTimestamp timestamp) {
+      if (timestamp.length() != newIndices.length)
+        throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    }
+
+    @Override
+    public String toString() {
+      return "Pruning{newIndices=" + Arrays.toString(newIndices) + "}";
+    }
+  }
+}
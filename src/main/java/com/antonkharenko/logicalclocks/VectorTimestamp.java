@@ -1,35 +1,255 @@
 package com.antonkharenko.logicalclocks;
 
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * This class represents specific time value of vector clock at the given moment of time. This class
  * is immutable. It provides convenient operations for working with vector time. In compare to
  * LocalTimestamp it can identify concurrent events by using more space.
  *
+ * <p>
+ * Vector entries are stored as a flat array of primitive cyclic time values, so comparison, merge
+ * and increment operations do not allocate intermediate objects. Each entry follows the same cyclic
+ * semantics as {@link com.antonkharenko.logicalclocks.LogicalTimestamp}.
+ *
+ * <p>
+ * Vector timestamp has compact binary representation (see {@link #writeTo(ByteBuffer)}) where each
+ * entry is variable length encoded, so small counters take a single byte. Vectors where most of the
+ * entries are zero are encoded in sparse form with a bitmap of non-zero entries.
+ *
  * @author Anton Kharenko
  * @see com.antonkharenko.logicalclocks.LogicalTimestamp
  * @see com.antonkharenko.logicalclocks.VectorClock
  */
-public final class VectorTimestamp {
+public final class VectorTimestamp implements Serializable {
+
+  private static final long serialVersionUID = 4236107226440853471L;
+
+  private static final byte DENSE_ENCODING = 0;
+  private static final byte SPARSE_ENCODING = 1;
+
+  /**
+   * Bit flag which is set if some entry of the first vector is smaller than the entry of the
+   * second one.
+   */
+  static final int BEFORE_FLAG = 1;
+
+  /**
+   * Bit flag which is set if some entry of the first vector is bigger than the entry of the second
+   * one.
+   */
+  static final int AFTER_FLAG = 2;
+
+  private static final Relation[] RELATIONS_BY_FLAGS = {
+      Relation.EQUAL, Relation.HAPPENS_BEFORE, Relation.HAPPENS_AFTER, Relation.CONCURRENT};
 
-  private final LogicalTimestamp[] timestamps;
+  private final long[] timestamps;
 
   /**
    * Creates vector clock of given length with default initial timestamps.
    */
   public VectorTimestamp(int vectorLength) {
-    timestamps = new LogicalTimestamp[vectorLength];
-    for (int i = 0; i < vectorLength; i++) {
-      timestamps[i] = new LogicalTimestamp();
-    }
+    timestamps = new long[vectorLength];
   }
 
   /**
    * Creates vector clock by given array of timestamps.
    */
   public VectorTimestamp(LogicalTimestamp[] timestamps) {
-    this.timestamps = Arrays.copyOf(timestamps, timestamps.length);
+    this.timestamps = new long[timestamps.length];
+    for (int i = 0; i < timestamps.length; i++) {
+      this.timestamps[i] = timestamps[i].toLong();
+    }
+  }
+
+  /**
+   * Creates vector clock which takes ownership over the given array of cyclic time values. Array
+   * should not be modified after it was passed to this constructor.
+   */
+  VectorTimestamp(long[] timestamps) {
+    this.timestamps = timestamps;
+  }
+
+  /**
+   * Converts given array of long values into corresponding vector timestamp. It is supposed that
+   * given values were produced by {@link VectorTimestamp#toLongs()} method or by
+   * {@link LogicalTimestamp#toLong()} method for each of the vector entries.
+   */
+  public static VectorTimestamp fromLongs(long[] longValues) {
+    return new VectorTimestamp(Arrays.copyOf(longValues, longValues.length));
+  }
+
+  /**
+   * Converts this timestamp into an array of long values. It can be converted back by
+   * {@link VectorTimestamp#fromLongs(long[])} method.
+   */
+  public long[] toLongs() {
+    return Arrays.copyOf(timestamps, timestamps.length);
+  }
+
+  /**
+   * Converts given byte array into corresponding vector timestamp. It is supposed that given byte
+   * array was produced by {@link VectorTimestamp#toBytes()} method.
+   */
+  public static VectorTimestamp fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    VectorTimestamp timestamp = readFrom(buffer);
+    if (buffer.hasRemaining())
+      throw new IllegalArgumentException("Unexpected bytes after encoded vector timestamp.");
+    return timestamp;
+  }
+
+  /**
+   * Converts this timestamp into a compact byte array representation. It can be converted back by
+   * {@link VectorTimestamp#fromBytes(byte[])} method.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Reads vector timestamp starting at the current position of the given buffer and advances its
+   * position. It is supposed that timestamp was written by {@link #writeTo(ByteBuffer)} method.
+   *
+   * @throws IllegalArgumentException if buffer contains malformed vector timestamp
+   * @throws java.nio.BufferUnderflowException if buffer ends before the end of vector timestamp
+   */
+  public static VectorTimestamp readFrom(ByteBuffer buffer) {
+    byte encoding = buffer.get();
+    int vectorLength = VarInts.readNonNegativeInt(buffer);
+    if (encoding == DENSE_ENCODING) {
+      if (vectorLength > buffer.remaining())
+        throw new IllegalArgumentException("Malformed vector timestamp length.");
+      long[] timestamps = new long[vectorLength];
+      for (int i = 0; i < vectorLength; i++) {
+        timestamps[i] = VarInts.read(buffer);
+      }
+      return new VectorTimestamp(timestamps);
+    } else if (encoding == SPARSE_ENCODING) {
+      int bitmapStart = buffer.position();
+      int bitmapLength = bitmapLength(vectorLength);
+      if (bitmapLength > buffer.remaining())
+        throw new IllegalArgumentException("Malformed vector timestamp length.");
+      buffer.position(bitmapStart + bitmapLength);
+      long[] timestamps = new long[vectorLength];
+      for (int i = 0; i < vectorLength; i++) {
+        if ((buffer.get(bitmapStart + (i >>> 3)) & (1 << (i & 7))) != 0) {
+          timestamps[i] = VarInts.read(buffer);
+        }
+      }
+      return new VectorTimestamp(timestamps);
+    } else {
+      throw new IllegalArgumentException("Unknown vector timestamp encoding: " + encoding);
+    }
+  }
+
+  /**
+   * Writes compact representation of this timestamp at the current position of the given buffer
+   * and advances its position. Dense or sparse encoding is chosen depending on which one is
+   * smaller. Number of written bytes is equal to {@link #serializedSize()}.
+   *
+   * @throws java.nio.BufferOverflowException if there is insufficient space in the buffer
+   */
+  public void writeTo(ByteBuffer buffer) {
+    if (isSparseEncodingSmaller()) {
+      buffer.put(SPARSE_ENCODING);
+      VarInts.write(buffer, timestamps.length);
+      int bitmapByte = 0;
+      for (int i = 0; i < timestamps.length; i++) {
+        if (timestamps[i] != 0) {
+          bitmapByte |= 1 << (i & 7);
+        }
+        if ((i & 7) == 7 || i == timestamps.length - 1) {
+          buffer.put((byte) bitmapByte);
+          bitmapByte = 0;
+        }
+      }
+      for (long timestamp : timestamps) {
+        if (timestamp != 0) {
+          VarInts.write(buffer, timestamp);
+        }
+      }
+    } else {
+      buffer.put(DENSE_ENCODING);
+      VarInts.write(buffer, timestamps.length);
+      for (long timestamp : timestamps) {
+        VarInts.write(buffer, timestamp);
+      }
+    }
+  }
+
+  /**
+   * Returns number of bytes taken by compact representation of this timestamp.
+   *
+   * @see #writeTo(ByteBuffer)
+   */
+  public int serializedSize() {
+    int size = 1 + VarInts.sizeOf(timestamps.length);
+    for (long timestamp : timestamps) {
+      size += VarInts.sizeOf(timestamp);
+    }
+    if (isSparseEncodingSmaller()) {
+      // Zero entries are replaced by the bitmap
+      size += bitmapLength(timestamps.length) - (timestamps.length - nonZeroCount());
+    }
+    return size;
+  }
+
+  private boolean isSparseEncodingSmaller() {
+    // Each zero entry takes a single byte in dense encoding
+    return timestamps.length - nonZeroCount() > bitmapLength(timestamps.length);
+  }
+
+  private int nonZeroCount() {
+    int count = 0;
+    for (long timestamp : timestamps) {
+      if (timestamp != 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static int bitmapLength(int vectorLength) {
+    return (vectorLength + 7) >>> 3;
+  }
+
+  /**
+   * Returns internal array of cyclic time values without copying. Returned array should not be
+   * modified.
+   */
+  long[] entries() {
+    return timestamps;
+  }
+
+  /**
+   * Returns the number of entries in this vector timestamp.
+   */
+  public int length() {
+    return timestamps.length;
+  }
+
+  /**
+   * Returns logical timestamp of the vector entry with the given index.
+   */
+  public LogicalTimestamp get(int index) {
+    return LogicalTimestamp.fromLong(getAsLong(index));
+  }
+
+  /**
+   * Returns long representation of the vector entry with the given index. It is equal to the
+   * {@link LogicalTimestamp#toLong()} of corresponding logical timestamp but doesn't allocate it.
+   */
+  public long getAsLong(int index) {
+    if (index < 0 || index >= timestamps.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    return timestamps[index];
   }
 
   /**
@@ -40,8 +260,8 @@ public final class VectorTimestamp {
     if (localIndex < 0 || localIndex >= timestamps.length)
       throw new IllegalArgumentException("Index out of bounds");
 
-    LogicalTimestamp[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
-    newTimestamps[localIndex] = newTimestamps[localIndex].nextTimestamp();
+    long[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
+    newTimestamps[localIndex]++;
 
     return new VectorTimestamp(newTimestamps);
   }
@@ -56,17 +276,146 @@ public final class VectorTimestamp {
     if (timestamps.length != happensBeforeTimestamp.timestamps.length)
       throw new IllegalArgumentException("Timestamp vectors length do not match.");
 
-    LogicalTimestamp[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
-    newTimestamps[localIndex] = newTimestamps[localIndex].nextTimestamp();
+    long[] thatTimestamps = happensBeforeTimestamp.timestamps;
+    long[] newTimestamps = new long[timestamps.length];
     for (int i = 0; i < newTimestamps.length; i++) {
-      if (i != localIndex && newTimestamps[i].isBefore(happensBeforeTimestamp.timestamps[i])) {
-        newTimestamps[i] = happensBeforeTimestamp.timestamps[i];
+      long thisTime = timestamps[i];
+      long thatTime = thatTimestamps[i];
+      newTimestamps[i] = LogicalTimestamp.compare(thisTime, thatTime) < 0 ? thatTime : thisTime;
+    }
+    newTimestamps[localIndex] = timestamps[localIndex] + 1;
+
+    return new VectorTimestamp(newTimestamps);
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to all given timestamps and current
+   * timestamp taking into account given local process id. It is equivalent to consecutive calls of
+   * {@link #nextTimestamp(int, VectorTimestamp)} for each of the given timestamps followed by a
+   * single increment, but it merges all timestamps in one pass and allocates only the result.
+   */
+  public VectorTimestamp nextTimestamp(int localIndex, VectorTimestamp[] happensBeforeTimestamps) {
+    if (localIndex < 0 || localIndex >= timestamps.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    checkLengths(happensBeforeTimestamps, timestamps.length);
+
+    long[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
+    for (VectorTimestamp happensBeforeTimestamp : happensBeforeTimestamps) {
+      maxInto(newTimestamps, happensBeforeTimestamp.timestamps);
+    }
+    newTimestamps[localIndex] = timestamps[localIndex] + 1;
+
+    return new VectorTimestamp(newTimestamps);
+  }
+
+  /**
+   * Returns pointwise maximum of the given timestamps of the same length, i.e. the earliest
+   * timestamp which happens after or equal to each of them.
+   *
+   * @throws IllegalArgumentException if no timestamps given or their lengths do not match
+   */
+  public static VectorTimestamp merge(VectorTimestamp... timestamps) {
+    if (timestamps.length == 0)
+      throw new IllegalArgumentException("At least one timestamp expected.");
+    checkLengths(timestamps, timestamps[0].timestamps.length);
+    return new VectorTimestamp(merge(timestamps, 0, timestamps.length));
+  }
+
+  /**
+   * Returns pointwise maximum of the given timestamps of the same length computed by parallel tree
+   * reduction in the given fork/join pool. It pays off only for large number of timestamps.
+   *
+   * @throws IllegalArgumentException if no timestamps given or their lengths do not match
+   * @see #merge(VectorTimestamp...)
+   */
+  public static VectorTimestamp merge(VectorTimestamp[] timestamps, ForkJoinPool pool) {
+    if (timestamps.length == 0)
+      throw new IllegalArgumentException("At least one timestamp expected.");
+    checkLengths(timestamps, timestamps[0].timestamps.length);
+    return new VectorTimestamp(pool.invoke(new MergeTask(timestamps, 0, timestamps.length)));
+  }
+
+  private static long[] merge(VectorTimestamp[] timestamps, int from, int to) {
+    long[] merged = Arrays.copyOf(timestamps[from].timestamps, timestamps[from].timestamps.length);
+    for (int i = from + 1; i < to; i++) {
+      maxInto(merged, timestamps[i].timestamps);
+    }
+    return merged;
+  }
+
+  /**
+   * Sets each entry of the accumulator to the cyclic maximum of its value and the corresponding
+   * entry of the given array.
+   */
+  private static void maxInto(long[] accumulator, long[] thatTimestamps) {
+    for (int i = 0; i < accumulator.length; i++) {
+      long thatTime = thatTimestamps[i];
+      if (LogicalTimestamp.compare(accumulator[i], thatTime) < 0) {
+        accumulator[i] = thatTime;
       }
     }
+  }
+
+  private static void checkLengths(VectorTimestamp[] timestamps, int length) {
+    for (VectorTimestamp timestamp : timestamps) {
+      if (timestamp.timestamps.length != length)
+        throw new IllegalArgumentException("Timestamp vectors length do not match.");
+    }
+  }
+
+  /**
+   * Returns new timestamp which is in happens after relation to both timestamp described by the
+   * given delta and current timestamp taking into account given local process id. Delta is supposed
+   * to be computed against a timestamp which happens before or equal to the current one, so only
+   * entries present in the delta need to be merged.
+   *
+   * @see #deltaFrom(VectorTimestamp)
+   */
+  public VectorTimestamp nextTimestamp(int localIndex, VectorTimestampDelta happensBeforeDelta) {
+    if (localIndex < 0 || localIndex >= timestamps.length)
+      throw new IllegalArgumentException("Index out of bounds.");
+    if (timestamps.length != happensBeforeDelta.vectorLength())
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+
+    long[] newTimestamps = Arrays.copyOf(timestamps, timestamps.length);
+    for (int i = 0; i < happensBeforeDelta.size(); i++) {
+      int index = happensBeforeDelta.indexAt(i);
+      long thatTime = happensBeforeDelta.timestampAt(i);
+      if (LogicalTimestamp.compare(newTimestamps[index], thatTime) < 0) {
+        newTimestamps[index] = thatTime;
+      }
+    }
+    newTimestamps[localIndex] = timestamps[localIndex] + 1;
 
     return new VectorTimestamp(newTimestamps);
   }
 
+  /**
+   * Returns delta which contains entries of this timestamp that differ from the given base
+   * timestamp. Merging the delta into the base timestamp gives this timestamp, if this timestamp
+   * happens after or equal to the base one.
+   *
+   * @param baseTimestamp timestamp to compute delta against or {@code null} for the initial
+   *        timestamp
+   */
+  public VectorTimestampDelta deltaFrom(VectorTimestamp baseTimestamp) {
+    if (baseTimestamp != null && timestamps.length != baseTimestamp.timestamps.length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+
+    int size = 0;
+    int[] indices = new int[timestamps.length];
+    long[] changedTimestamps = new long[timestamps.length];
+    for (int i = 0; i < timestamps.length; i++) {
+      long baseTime = baseTimestamp != null ? baseTimestamp.timestamps[i] : 0L;
+      if (timestamps[i] != baseTime) {
+        indices[size] = i;
+        changedTimestamps[size++] = timestamps[i];
+      }
+    }
+    return new VectorTimestampDelta(timestamps.length, Arrays.copyOf(indices, size),
+        Arrays.copyOf(changedTimestamps, size));
+  }
+
   /**
    * Returns true if current timestamp happens before given timestamp and timestamps are in a causal
    * relation. In case of false result it either can correspond to the one of possible situations:
@@ -93,7 +442,7 @@ public final class VectorTimestamp {
    * timestamps are equal, timestamps are in causal relation.
    */
   public boolean isConcurrent(VectorTimestamp that) {
-    return compare(that) == Relation.HAPPENS_BEFORE;
+    return compare(that) == Relation.CONCURRENT;
   }
 
   /**
@@ -108,20 +457,58 @@ public final class VectorTimestamp {
     if (timestamps.length != that.timestamps.length)
       throw new IllegalArgumentException("Timestamp vectors length do not match.");
 
-    Relation relation = Relation.EQUAL;
-    for (int i = 0; i < timestamps.length; i++) {
-      if (this.timestamps[i].isBefore(that.timestamps[i])) {
-        if (relation == Relation.HAPPENS_AFTER)
-          return Relation.CONCURRENT;
-        relation = Relation.HAPPENS_BEFORE;
-      } else if (this.timestamps[i].isAfter(that.timestamps[i])) {
-        if (relation == Relation.HAPPENS_BEFORE)
-          return Relation.CONCURRENT;
-        relation = Relation.HAPPENS_AFTER;
-      }
+    return relation(relationFlags(timestamps, that.timestamps));
+  }
+
+  /**
+   * Compares this timestamp with each of the given timestamps in a single pass per timestamp.
+   *
+   * @param those vector timestamps of the same length to compare with
+   * @return Array where element with index {@code i} is equal to {@code compare(those[i])}.
+   * @see #compare(VectorTimestamp)
+   */
+  public Relation[] compare(VectorTimestamp[] those) {
+    Relation[] relations = new Relation[those.length];
+    for (int i = 0; i < those.length; i++) {
+      relations[i] = compare(those[i]);
     }
+    return relations;
+  }
 
-    return relation;
+  /**
+   * Returns relation which corresponds to the given combination of {@link #BEFORE_FLAG} and
+   * {@link #AFTER_FLAG}.
+   */
+  static Relation relation(int flags) {
+    return RELATIONS_BY_FLAGS[flags];
+  }
+
+  /**
+   * Returns combination of {@link #BEFORE_FLAG} and {@link #AFTER_FLAG} for the given vectors of
+   * the same length. Scan stops as soon as both flags are set.
+   */
+  static int relationFlags(long[] thisTimestamps, long[] thatTimestamps) {
+    int flags = 0;
+    for (int i = 0; i < thisTimestamps.length && flags != (BEFORE_FLAG | AFTER_FLAG); i++) {
+      flags |= relationFlags(thisTimestamps[i], thatTimestamps[i]);
+    }
+    return flags;
+  }
+
+  /**
+   * Returns {@link #BEFORE_FLAG}, {@link #AFTER_FLAG} or zero depending on the relation between
+   * given cyclic time values without branching. Result is consistent with
+   * {@link LogicalTimestamp#compare(long, long)}: in cyclic time sign of the wrapped difference
+   * defines the order, except for the values which are exactly half of the cycle apart and are
+   * considered to be equal.
+   */
+  static int relationFlags(long thisTime, long thatTime) {
+    long difference = thisTime - thatTime;
+    long halfCycle = difference ^ Long.MIN_VALUE;
+    long notHalfCycle = (halfCycle | -halfCycle) >>> 63;
+    long before = (difference >>> 63) & notHalfCycle;
+    long after = (-difference >>> 63) & notHalfCycle;
+    return (int) (before | after << 1);
   }
 
   @Override
@@ -145,4 +532,35 @@ public final class VectorTimestamp {
   public String toString() {
     return Arrays.toString(timestamps);
   }
+
+  /**
+   * Merges range of timestamps splitting it in halves until it is small enough.
+   */
+  private static final class MergeTask extends RecursiveTask<long[]> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int THRESHOLD = 64;
+
+    private final VectorTimestamp[] timestamps;
+    private final int from;
+    private final int to;
+
+    private MergeTask(VectorTimestamp[] timestamps, int from, int to) {
+      this.timestamps = timestamps;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected long[] compute() {
+      if (to - from <= THRESHOLD)
+        return merge(timestamps, from, to);
+      int middle = (from + to) >>> 1;
+      MergeTask head = new MergeTask(timestamps, from, middle);
+      head.fork();
+      long[] merged = new MergeTask(timestamps, middle, to).compute();
+      maxInto(merged, head.join());
+      return merged;
+    }
+  }
 }
@@ -0,0 +1,176 @@
+package com.antonkharenko.logicalclocks;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class represents a batch of vector timestamps of the same length stored in columnar layout,
+ * i.e. values of the same vector entry for all timestamps are stored next to each other. It allows
+ * to compare one timestamp against all timestamps of the batch with a branch free kernel which runs
+ * over columns in a tight loop, so JIT compiler is able to vectorize it.
+ *
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp
+ */
+public final class VectorTimestampBatch {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final long[][] columns;
+  private int size;
+
+  /**
+   * Creates empty batch for vector timestamps of the given length.
+   */
+  public VectorTimestampBatch(int vectorLength) {
+    columns = new long[vectorLength][DEFAULT_CAPACITY];
+  }
+
+  /**
+   * Creates batch which contains given vector timestamps of the same length.
+   */
+  public VectorTimestampBatch(int vectorLength, VectorTimestamp[] timestamps) {
+    columns = new long[vectorLength][Math.max(timestamps.length, DEFAULT_CAPACITY)];
+    for (VectorTimestamp timestamp : timestamps) {
+      add(timestamp);
+    }
+  }
+
+  /**
+   * Returns number of timestamps in this batch.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns length of vector timestamps in this batch.
+   */
+  public int vectorLength() {
+    return columns.length;
+  }
+
+  /**
+   * Appends given timestamp to this batch.
+   *
+   * @return Index of the added timestamp in this batch.
+   */
+  public int add(VectorTimestamp timestamp) {
+    long[] entries = timestamp.entries();
+    checkLength(entries);
+    ensureCapacity(size + 1);
+    for (int j = 0; j < columns.length; j++) {
+      columns[j][size] = entries[j];
+    }
+    return size++;
+  }
+
+  /**
+   * Replaces timestamp with the given index in this batch.
+   */
+  public void set(int index, VectorTimestamp timestamp) {
+    checkIndex(index);
+    long[] entries = timestamp.entries();
+    checkLength(entries);
+    for (int j = 0; j < columns.length; j++) {
+      columns[j][index] = entries[j];
+    }
+  }
+
+  /**
+   * Returns timestamp with the given index in this batch.
+   */
+  public VectorTimestamp get(int index) {
+    checkIndex(index);
+    long[] entries = new long[columns.length];
+    for (int j = 0; j < columns.length; j++) {
+      entries[j] = columns[j][index];
+    }
+    return new VectorTimestamp(entries);
+  }
+
+  /**
+   * Removes all timestamps from this batch.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Compares the given timestamp with each timestamp of this batch.
+   *
+   * @param timestamp vector timestamp to compare
+   * @return Array where element with index {@code i} is equal to
+   *         {@code timestamp.compare(get(i))}.
+   * @see VectorTimestamp#compare(VectorTimestamp)
+   */
+  public Relation[] compare(VectorTimestamp timestamp) {
+    int[] flags = relationFlags(timestamp);
+    Relation[] relations = new Relation[size];
+    for (int i = 0; i < size; i++) {
+      relations[i] = VectorTimestamp.relation(flags[i]);
+    }
+    return relations;
+  }
+
+  /**
+   * Returns indices of timestamps in this batch which are in the given relation with the given
+   * timestamp, e.g. {@code select(timestamp, Relation.HAPPENS_AFTER)} returns timestamps dominated
+   * by the given one and {@code select(timestamp, Relation.CONCURRENT)} returns timestamps
+   * concurrent to it.
+   *
+   * @param timestamp vector timestamp to compare
+   * @param relation relation of the given timestamp to the selected timestamps of the batch
+   * @return Bitmap where bit with index {@code i} is set if {@code timestamp.compare(get(i))} is
+   *         equal to the given relation.
+   */
+  public BitSet select(VectorTimestamp timestamp, Relation relation) {
+    int[] flags = relationFlags(timestamp);
+    BitSet selected = new BitSet(size);
+    for (int i = 0; i < size; i++) {
+      if (VectorTimestamp.relation(flags[i]) == relation) {
+        selected.set(i);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Computes relation flags of the given timestamp to each timestamp of the batch column by column.
+   */
+  private int[] relationFlags(VectorTimestamp timestamp) {
+    long[] entries = timestamp.entries();
+    checkLength(entries);
+    int[] flags = new int[size];
+    for (int j = 0; j < columns.length; j++) {
+      long[] column = columns[j];
+      long time = entries[j];
+      for (int i = 0; i < size; i++) {
+        flags[i] |= VectorTimestamp.relationFlags(time, column[i]);
+      }
+    }
+    return flags;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (columns.length > 0 && columns[0].length < capacity) {
+      int newCapacity = Math.max(capacity, columns[0].length * 2);
+      for (int j = 0; j < columns.length; j++) {
+        columns[j] = Arrays.copyOf(columns[j], newCapacity);
+      }
+    }
+  }
+
+  private void checkLength(long[] entries) {
+    if (entries.length != columns.length)
+      throw new IllegalArgumentException("Timestamp vectors length do not match.");
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IllegalArgumentException("Index out of bounds.");
+  }
+}
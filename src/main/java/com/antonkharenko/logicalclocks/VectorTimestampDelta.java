@@ -0,0 +1,175 @@
+package com.antonkharenko.logicalclocks;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class represents difference between two vector timestamps of the same length. This class is
+ * immutable. It keeps only the entries which changed, so it is suitable for sending vector time to
+ * a peer which already knows the previous timestamp sent to it.
+ *
+ * @author Anton Kharenko
+ * @see com.antonkharenko.logicalclocks.VectorTimestamp#deltaFrom(VectorTimestamp)
+ * @see com.antonkharenko.logicalclocks.VectorClock#tickDelta(int)
+ */
+public final class VectorTimestampDelta implements Serializable {
+
+  private static final long serialVersionUID = 8526001457211985409L;
+
+  private final int vectorLength;
+  private final int[] indices;
+  private final long[] timestamps;
+
+  /**
+   * Creates delta which takes ownership over the given arrays. Indices should be sorted and arrays
+   * should not be modified after they were passed to this constructor.
+   */
+  VectorTimestampDelta(int vectorLength, int[] indices, long[] timestamps) {
+    this.vectorLength = vectorLength;
+    this.indices = indices;
+    this.timestamps = timestamps;
+  }
+
+  /**
+   * Returns length of the vector timestamps this delta applies to.
+   */
+  public int vectorLength() {
+    return vectorLength;
+  }
+
+  /**
+   * Returns number of changed entries in this delta.
+   */
+  public int size() {
+    return indices.length;
+  }
+
+  /**
+   * Returns vector index of the changed entry with the given position in this delta.
+   */
+  public int indexAt(int position) {
+    return indices[position];
+  }
+
+  /**
+   * Returns long representation of the new time value of the changed entry with the given position
+   * in this delta.
+   */
+  public long timestampAt(int position) {
+    return timestamps[position];
+  }
+
+  /**
+   * Converts given byte array into corresponding delta. It is supposed that given byte array was
+   * produced by {@link VectorTimestampDelta#toBytes()} method.
+   */
+  public static VectorTimestampDelta fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    VectorTimestampDelta delta = readFrom(buffer);
+    if (buffer.hasRemaining())
+      throw new IllegalArgumentException("Unexpected bytes after encoded delta.");
+    return delta;
+  }
+
+  /**
+   * Converts this delta into a compact byte array representation. It can be converted back by
+   * {@link VectorTimestampDelta#fromBytes(byte[])} method.
+   */
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Reads delta starting at the current position of the given buffer and advances its position. It
+   * is supposed that delta was written by {@link #writeTo(ByteBuffer)} method.
+   *
+   * @throws IllegalArgumentException if buffer contains malformed delta
+   * @throws java.nio.BufferUnderflowException if buffer ends before the end of delta
+   */
+  public static VectorTimestampDelta readFrom(ByteBuffer buffer) {
+    int vectorLength = VarInts.readNonNegativeInt(buffer);
+    int size = VarInts.readNonNegativeInt(buffer);
+    if (size > vectorLength || size > buffer.remaining() / 2)
+      throw new IllegalArgumentException("Malformed delta size.");
+    int[] indices = new int[size];
+    long[] timestamps = new long[size];
+    long index = -1;
+    for (int i = 0; i < size; i++) {
+      long indexGap = VarInts.read(buffer);
+      if (indexGap < 0 || indexGap >= vectorLength - 1 - index)
+        throw new IllegalArgumentException("Malformed delta entry.");
+      index += indexGap + 1;
+      indices[i] = (int) index;
+      timestamps[i] = VarInts.read(buffer);
+    }
+    return new VectorTimestampDelta(vectorLength, indices, timestamps);
+  }
+
+  /**
+   * Writes compact representation of this delta at the current position of the given buffer and
+   * advances its position. Vector length and number of entries are followed by variable length
+   * encoded gap from the previous index and time value for each entry. Number of written bytes is
+   * equal to {@link #serializedSize()}.
+   *
+   * @throws java.nio.BufferOverflowException if there is insufficient space in the buffer
+   */
+  public void writeTo(ByteBuffer buffer) {
+    VarInts.write(buffer, vectorLength);
+    VarInts.write(buffer, indices.length);
+    int previousIndex = -1;
+    for (int i = 0; i < indices.length; i++) {
+      VarInts.write(buffer, indices[i] - previousIndex - 1);
+      VarInts.write(buffer, timestamps[i]);
+      previousIndex = indices[i];
+    }
+  }
+
+  /**
+   * Returns number of bytes taken by compact representation of this delta.
+   *
+   * @see #writeTo(ByteBuffer)
+   */
+  public int serializedSize() {
+    int size = VarInts.sizeOf(vectorLength) + VarInts.sizeOf(indices.length);
+    int previousIndex = -1;
+    for (int i = 0; i < indices.length; i++) {
+      size += VarInts.sizeOf(indices[i] - previousIndex - 1);
+      size += VarInts.sizeOf(timestamps[i]);
+      previousIndex = indices[i];
+    }
+    return size;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    VectorTimestampDelta that = (VectorTimestampDelta) o;
+    return vectorLength == that.vectorLength && Arrays.equals(indices, that.indices)
+        && Arrays.equals(timestamps, that.timestamps);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * vectorLength + Arrays.hashCode(indices)) + Arrays.hashCode(timestamps);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < indices.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(indices[i]).append('=').append(timestamps[i]);
+    }
+    return sb.append('}').toString();
+  }
+}
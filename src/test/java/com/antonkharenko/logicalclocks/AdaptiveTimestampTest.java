@@ -0,0 +1,80 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class AdaptiveTimestampTest {
+
+  @Test
+  public void testOrderedEventsStayEpoch() {
+    // Given
+    VectorClock clock0 = new VectorClock(0, 3);
+    VectorClock clock1 = new VectorClock(1, 3);
+    AdaptiveTimestamp ts = AdaptiveTimestamp.epoch(0, clock0.tick().getAsLong(0), 3);
+
+    // When
+    VectorTimestamp access = clock1.tick(clock0.tick());
+    AdaptiveTimestamp recorded = ts.record(1, access);
+
+    // Then
+    assertTrue(recorded.isEpoch());
+    assertEquals(1, recorded.epochIndex());
+    assertEquals(1L, recorded.epochCounter());
+    assertEquals("1@1", recorded.toString());
+    assertTrue(recorded.isHappensBeforeOrEqual(clock1.tick()));
+    assertFalse(recorded.isHappensBeforeOrEqual(clock0.time()));
+  }
+
+  @Test
+  public void testConcurrentEventsExpandToVector() {
+    // Given
+    VectorClock clock0 = new VectorClock(0, 3);
+    VectorClock clock1 = new VectorClock(1, 3);
+    VectorClock clock2 = new VectorClock(2, 3);
+    VectorTimestamp access0 = clock0.tick();
+    VectorTimestamp access1 = clock1.tick();
+    AdaptiveTimestamp ts = AdaptiveTimestamp.epoch(0, access0.getAsLong(0), 3);
+
+    // When
+    AdaptiveTimestamp recorded = ts.record(1, access1);
+
+    // Then
+    assertFalse(recorded.isEpoch());
+    assertArrayEquals(new long[] {1L, 1L, 0L}, recorded.toVectorTimestamp().toLongs());
+    assertFalse(recorded.isHappensBeforeOrEqual(clock2.tick(access0)));
+
+    VectorTimestamp joined = clock2.tick(access1);
+    assertTrue(recorded.isHappensBeforeOrEqual(joined));
+    AdaptiveTimestamp collapsed = recorded.record(2, joined);
+    assertTrue(collapsed.isEpoch());
+    assertEquals(AdaptiveTimestamp.epoch(2, 2L, 3), collapsed);
+  }
+
+  @Test
+  public void testVectorTimestamp() {
+    // Given
+    VectorTimestamp vector = VectorTimestamp.fromLongs(new long[] {3L, 4L});
+
+    // When
+    AdaptiveTimestamp ts = AdaptiveTimestamp.of(vector);
+
+    // Then
+    assertFalse(ts.isEpoch());
+    assertEquals(vector, ts.toVectorTimestamp());
+    assertTrue(ts.isHappensBeforeOrEqual(vector));
+    assertArrayEquals(new long[] {0L, 7L},
+        AdaptiveTimestamp.epoch(1, 7L, 2).toVectorTimestamp().toLongs());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEpochOfVector() {
+    AdaptiveTimestamp.of(new VectorTimestamp(2)).epochIndex();
+  }
+}
@@ -0,0 +1,96 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class BloomClockTest {
+
+  @Test
+  public void testTickIncrementsHashCountCells() {
+    // Given
+    BloomClock clock = new BloomClock(7, 32, 3);
+
+    // When
+    BloomTimestamp ts1 = clock.tick();
+    BloomTimestamp ts2 = clock.tick();
+
+    // Then
+    assertEquals(3L, ts1.sum());
+    assertEquals(6L, ts2.sum());
+    assertEquals(ts2, clock.time());
+    assertEquals(Relation.HAPPENS_BEFORE, ts1.compare(ts2));
+    assertEquals(Relation.HAPPENS_AFTER, ts2.compare(ts1));
+    assertEquals(Relation.EQUAL, ts2.compare(clock.time()));
+  }
+
+  @Test
+  public void testCausalAndConcurrentEvents() {
+    // Given
+    BloomClock clock1 = new BloomClock(1, 64, 3);
+    BloomClock clock2 = new BloomClock(2, 64, 3);
+    BloomTimestamp send = clock1.tick();
+    BloomTimestamp concurrent = clock2.tick();
+
+    // When
+    BloomTimestamp receive = clock2.tick(send);
+
+    // Then
+    assertTrue(send.isHappensBefore(receive));
+    assertTrue(receive.isHappensAfter(concurrent));
+    assertTrue(send.isConcurrent(concurrent));
+    assertEquals(0.0, send.falsePositiveProbability(concurrent), 0.0);
+  }
+
+  @Test
+  public void testFalsePositiveProbabilityGrowsWithHistory() {
+    // Given
+    BloomClock clock = new BloomClock(1, 16, 2);
+    BloomTimestamp first = clock.tick();
+    BloomTimestamp second = clock.tick();
+    for (int i = 0; i < 20; i++) {
+      clock.tick();
+    }
+
+    // When
+    double shortHistory = first.falsePositiveProbability(second);
+    double longHistory = first.falsePositiveProbability(clock.time());
+
+    // Then
+    double expected = Math.pow(1.0 - Math.pow(15.0 / 16.0, 4), 2);
+    assertEquals(expected, shortHistory, 1e-12);
+    assertEquals(shortHistory, second.falsePositiveProbability(first), 0.0);
+    assertTrue(longHistory > shortHistory);
+    assertTrue(longHistory < 1.0);
+  }
+
+  @Test
+  public void testBytesRoundTrip() {
+    // Given
+    BloomClock clock = new BloomClock(3, 20, 4);
+    clock.tick();
+    BloomTimestamp ts = clock.tick();
+
+    // When
+    BloomTimestamp decoded = BloomTimestamp.fromBytes(ts.toBytes());
+
+    // Then
+    assertEquals(ts, decoded);
+    assertEquals(ts.hashCode(), decoded.hashCode());
+    assertEquals(ts.serializedSize(), ts.toBytes().length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompareDifferentSizes() {
+    new BloomTimestamp(8, 2).compare(new BloomTimestamp(16, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHashCountGreaterThanSize() {
+    new BloomTimestamp(2, 3);
+  }
+}
@@ -0,0 +1,227 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class CausalDeliveryBufferTest {
+
+  @Test
+  public void testHoldsBackUntilCausalPredecessorDelivered() {
+    // Given
+    CausalDeliveryBuffer<String> sender = new CausalDeliveryBuffer<>(0, 3, 10);
+    CausalDeliveryBuffer<String> replier = new CausalDeliveryBuffer<>(1, 3, 10);
+    CausalDeliveryBuffer<String> receiver = new CausalDeliveryBuffer<>(2, 3, 10);
+
+    VectorTimestamp question = sender.nextBroadcastTimestamp();
+    assertTrue(replier.offer(0, question, "question"));
+    assertEquals("question", replier.poll());
+    VectorTimestamp answer = replier.nextBroadcastTimestamp();
+
+    // When
+    assertTrue(receiver.offer(1, answer, "answer"));
+
+    // Then
+    assertNull(receiver.poll());
+    assertEquals(1, receiver.heldBackCount());
+
+    assertTrue(receiver.offer(0, question, "question"));
+    assertEquals("question", receiver.poll());
+    assertEquals("answer", receiver.poll());
+    assertEquals(0, receiver.heldBackCount());
+    assertEquals(VectorTimestamp.fromLongs(new long[] {1L, 1L, 0L}), receiver.delivered());
+  }
+
+  @Test
+  public void testFifoOrderOfReversedBurst() {
+    // Given
+    int count = 100000;
+    CausalDeliveryBuffer<Integer> sender = new CausalDeliveryBuffer<>(0, 2, count);
+    CausalDeliveryBuffer<Integer> receiver = new CausalDeliveryBuffer<>(1, 2, count);
+    VectorTimestamp[] timestamps = new VectorTimestamp[count];
+    for (int i = 0; i < count; i++) {
+      timestamps[i] = sender.nextBroadcastTimestamp();
+    }
+
+    // When
+    for (int i = count - 1; i >= 0; i--) {
+      assertTrue(receiver.offer(0, timestamps[i], i));
+    }
+    List<Integer> delivered = new ArrayList<>();
+    receiver.drainTo(delivered);
+
+    // Then
+    assertEquals(count, delivered.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, delivered.get(i).intValue());
+    }
+  }
+
+  @Test
+  public void testRandomOrderRespectsCausality() {
+    // Given
+    Random random = new Random(7L);
+    int processCount = 4;
+    List<CausalDeliveryBuffer<VectorTimestamp>> processes = new ArrayList<>();
+    for (int i = 0; i < processCount; i++) {
+      processes.add(new CausalDeliveryBuffer<VectorTimestamp>(i, processCount, 1000));
+    }
+    List<int[]> senders = new ArrayList<>();
+    List<VectorTimestamp> sent = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int senderIndex = random.nextInt(processCount - 1) + 1;
+      CausalDeliveryBuffer<VectorTimestamp> sender = processes.get(senderIndex);
+      // Senders deliver some of the earlier broadcasts before broadcasting
+      for (int j = 0; j < sent.size(); j++) {
+        if (senders.get(j)[0] != senderIndex && random.nextInt(3) == 0) {
+          sender.offer(senders.get(j)[0], sent.get(j), sent.get(j));
+        }
+      }
+      while (sender.poll() != null) {
+        // Skip delivered messages
+      }
+      senders.add(new int[] {senderIndex});
+      sent.add(sender.nextBroadcastTimestamp());
+    }
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < sent.size(); i++) {
+      order.add(i);
+    }
+    Collections.shuffle(order, random);
+    CausalDeliveryBuffer<VectorTimestamp> receiver = processes.get(0);
+
+    // When
+    List<VectorTimestamp> delivered = new ArrayList<>();
+    for (int i : order) {
+      assertTrue(receiver.offer(senders.get(i)[0], sent.get(i), sent.get(i)));
+      receiver.drainTo(delivered);
+    }
+
+    // Then
+    assertEquals(sent.size(), delivered.size());
+    for (int i = 0; i < delivered.size(); i++) {
+      for (int j = i + 1; j < delivered.size(); j++) {
+        assertFalse(delivered.get(j).isHappensBefore(delivered.get(i)));
+      }
+    }
+    assertEquals(0, receiver.heldBackCount());
+  }
+
+  @Test
+  public void testDuplicatesAreIgnored() {
+    // Given
+    CausalDeliveryBuffer<String> sender = new CausalDeliveryBuffer<>(0, 2, 10);
+    CausalDeliveryBuffer<String> receiver = new CausalDeliveryBuffer<>(1, 2, 10);
+    VectorTimestamp first = sender.nextBroadcastTimestamp();
+    VectorTimestamp second = sender.nextBroadcastTimestamp();
+
+    // When
+    receiver.offer(0, second, "second");
+    receiver.offer(0, second, "second");
+    receiver.offer(0, first, "first");
+    receiver.offer(0, first, "first");
+
+    // Then
+    List<String> delivered = new ArrayList<>();
+    receiver.drainTo(delivered);
+    assertEquals(Arrays.asList("first", "second"), delivered);
+    assertEquals(0, receiver.heldBackCount());
+  }
+
+  @Test
+  public void testBackPressure() throws Exception {
+    // Given
+    CausalDeliveryBuffer<Integer> sender = new CausalDeliveryBuffer<>(0, 2, 2);
+    CausalDeliveryBuffer<Integer> receiver = new CausalDeliveryBuffer<>(1, 2, 2);
+    VectorTimestamp[] timestamps = new VectorTimestamp[5];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = sender.nextBroadcastTimestamp();
+    }
+
+    // When
+    assertTrue(receiver.offer(0, timestamps[3], 3));
+    assertTrue(receiver.offer(0, timestamps[2], 2));
+
+    // Then
+    assertFalse(receiver.offer(0, timestamps[1], 1, 10, TimeUnit.MILLISECONDS));
+    assertTrue(receiver.offer(0, timestamps[0], 0));
+    assertTrue(receiver.offer(0, timestamps[1], 1));
+    assertEquals(4, receiver.deliverableCount());
+    assertEquals(0, receiver.heldBackCount());
+
+    assertFalse(receiver.offer(0, timestamps[4], 4));
+    assertEquals(Integer.valueOf(0), receiver.take());
+    assertEquals(Integer.valueOf(1), receiver.poll(1, TimeUnit.SECONDS));
+    assertEquals(Integer.valueOf(2), receiver.poll());
+    assertTrue(receiver.offer(0, timestamps[4], 4));
+    assertEquals(Integer.valueOf(3), receiver.poll());
+    assertEquals(Integer.valueOf(4), receiver.poll());
+    assertNull(receiver.poll());
+  }
+
+  @Test
+  public void testConcurrentProducers() throws Exception {
+    // Given
+    final int producerCount = 4;
+    final int messageCount = 10000;
+    final CausalDeliveryBuffer<Integer> receiver =
+        new CausalDeliveryBuffer<>(0, producerCount + 1, 16);
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> producers = new ArrayList<>();
+    for (int p = 1; p <= producerCount; p++) {
+      final int senderIndex = p;
+      final CausalDeliveryBuffer<Integer> sender =
+          new CausalDeliveryBuffer<>(senderIndex, producerCount + 1, 1);
+      Thread producer = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            for (int i = 0; i < messageCount; i++) {
+              receiver.put(senderIndex, sender.nextBroadcastTimestamp(), senderIndex);
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      };
+      producer.start();
+      producers.add(producer);
+    }
+
+    // When
+    start.countDown();
+    int[] counts = new int[producerCount + 1];
+    for (int i = 0; i < producerCount * messageCount; i++) {
+      counts[receiver.take()]++;
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+
+    // Then
+    for (int p = 1; p <= producerCount; p++) {
+      assertEquals(messageCount, counts[p]);
+    }
+    assertNull(receiver.poll());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOwnIndexAsSender() {
+    new CausalDeliveryBuffer<String>(0, 2, 1).offer(0, new VectorTimestamp(2), "message");
+  }
+}
@@ -0,0 +1,163 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class ConcurrentEventDetectorTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+  private final ConcurrentEventDetector detector = new ConcurrentEventDetector(pool);
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testFindConcurrentPairs() {
+    // Given
+    List<Integer> processIndices = new ArrayList<>();
+    VectorTimestamp[] events = randomTrace(new Random(11L), 5, 1000, processIndices);
+    Set<Long> expected = bruteForcePairs(events);
+
+    // When
+    PairCollector pairs = new PairCollector();
+    long count = detector.findConcurrentPairs(events, pairs);
+
+    // Then
+    assertEquals(expected.size(), count);
+    assertEquals(expected, pairs.pairs);
+  }
+
+  @Test
+  public void testFindConcurrentPairsWithProcessIndices() {
+    // Given
+    List<Integer> processIndices = new ArrayList<>();
+    VectorTimestamp[] events = randomTrace(new Random(12L), 6, 1000, processIndices);
+    int[] indices = new int[processIndices.size()];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = processIndices.get(i);
+    }
+    Set<Long> expected = bruteForcePairs(events);
+
+    // When
+    PairCollector pairs = new PairCollector();
+    long count = detector.findConcurrentPairs(events, indices, pairs);
+
+    // Then
+    assertEquals(expected.size(), count);
+    assertEquals(expected, pairs.pairs);
+  }
+
+  @Test
+  public void testFindConcurrentPairsWithNegativeEntries() {
+    // Given
+    VectorTimestamp[] events = {
+        VectorTimestamp.fromLongs(new long[] {-5L, 0L}),
+        VectorTimestamp.fromLongs(new long[] {-4L, 0L}),
+        VectorTimestamp.fromLongs(new long[] {-5L, 1L}),
+        VectorTimestamp.fromLongs(new long[] {-4L, 0L}),
+        VectorTimestamp.fromLongs(new long[] {Long.MAX_VALUE, 2L})};
+
+    // When
+    PairCollector pairs = new PairCollector();
+    long count = detector.findConcurrentPairs(events, pairs);
+
+    // Then
+    Set<Long> expected = bruteForcePairs(events);
+    assertEquals(expected.size(), count);
+    assertEquals(expected, pairs.pairs);
+  }
+
+  @Test
+  public void testFindConcurrentPairsWithLargeSums() {
+    // Given
+    VectorTimestamp[] events = randomTrace(new Random(13L), 4, 300, new ArrayList<Integer>());
+    for (int i = 0; i < events.length; i++) {
+      long[] entries = events[i].toLongs();
+      entries[0] += 1L << 40;
+      events[i] = VectorTimestamp.fromLongs(entries);
+    }
+    Set<Long> expected = bruteForcePairs(events);
+
+    // When
+    PairCollector pairs = new PairCollector();
+    long count = detector.findConcurrentPairs(events, pairs);
+
+    // Then
+    assertEquals(expected.size(), count);
+    assertEquals(expected, pairs.pairs);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDifferentLength() {
+    VectorTimestamp[] events = {new VectorTimestamp(2), new VectorTimestamp(3)};
+    detector.findConcurrentPairs(events, new PairCollector());
+  }
+
+  /**
+   * Generates events of processes which exchange messages at random.
+   */
+  private static VectorTimestamp[] randomTrace(Random random, int processCount, int eventCount,
+      List<Integer> processIndices) {
+    List<VectorClock> clocks = new ArrayList<>();
+    for (int p = 0; p < processCount; p++) {
+      clocks.add(new VectorClock(p, processCount));
+    }
+    List<VectorTimestamp> events = new ArrayList<>();
+    for (int i = 0; i < eventCount; i++) {
+      int process = random.nextInt(processCount);
+      VectorTimestamp event;
+      if (random.nextInt(10) == 0 && !events.isEmpty()) {
+        event = clocks.get(process).tick(events.get(random.nextInt(events.size())));
+      } else {
+        event = clocks.get(process).tick();
+      }
+      events.add(event);
+      processIndices.add(process);
+    }
+    return events.toArray(new VectorTimestamp[events.size()]);
+  }
+
+  private static Set<Long> bruteForcePairs(VectorTimestamp[] events) {
+    Set<Long> pairs = new HashSet<>();
+    for (int i = 0; i < events.length; i++) {
+      for (int j = i + 1; j < events.length; j++) {
+        if (events[i].isConcurrent(events[j])) {
+          pairs.add(pair(i, j));
+        }
+      }
+    }
+    return pairs;
+  }
+
+  private static long pair(int first, int second) {
+    return (long) first << 32 | second;
+  }
+
+  private static final class PairCollector implements ConcurrentEventDetector.PairListener {
+    private final Set<Long> pairs =
+        Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+
+    @Override
+    public void onConcurrentPair(int firstIndex, int secondIndex) {
+      assertTrue(firstIndex < secondIndex);
+      pairs.add(pair(firstIndex, secondIndex));
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Anton Kharenko
+ */
+public class DurableLogicalClockTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testTickReservesBlock() throws Exception {
+    // Given
+    Path file = new File(folder.getRoot(), "clock").toPath();
+
+    try (DurableLogicalClock clock = new DurableLogicalClock(file, 100)) {
+      // When
+      LogicalTimestamp first = clock.tick();
+      LogicalTimestamp reserved = clock.reservedTime();
+      for (int i = 0; i < 99; i++) {
+        clock.tick();
+      }
+
+      // Then
+      assertEquals(1L, first.toLong());
+      assertEquals(101L, reserved.toLong());
+      assertEquals(reserved, clock.reservedTime());
+      assertEquals(101L, clock.tickAsLong());
+      assertEquals(reserved, clock.reservedTime());
+      assertEquals(102L, clock.tickAsLong());
+      assertEquals(202L, clock.reservedTime().toLong());
+    }
+  }
+
+  @Test
+  public void testResumeAfterRestart() throws Exception {
+    // Given
+    Path file = new File(folder.getRoot(), "clock").toPath();
+    LogicalTimestamp lastTimestamp;
+    try (DurableLogicalClock clock = new DurableLogicalClock(file, 10)) {
+      for (int i = 0; i < 25; i++) {
+        clock.tick();
+      }
+      lastTimestamp = clock.tick(LogicalTimestamp.fromLong(40L));
+    }
+
+    // When
+    try (DurableLogicalClock restartedClock = new DurableLogicalClock(file, 10)) {
+      LogicalTimestamp nextTimestamp = restartedClock.tick();
+
+      // Then
+      assertEquals(41L, lastTimestamp.toLong());
+      assertTrue(nextTimestamp.isAfter(lastTimestamp));
+      assertEquals(52L, nextTimestamp.toLong());
+    }
+  }
+
+  @Test
+  public void testInitialTimestamp() throws Exception {
+    // Given
+    Path file = new File(folder.getRoot(), "clock").toPath();
+    try (DurableLogicalClock clock = new DurableLogicalClock(file, 10)) {
+      clock.tick();
+    }
+
+    // When
+    try (DurableLogicalClock clock =
+        new DurableLogicalClock(file, LogicalTimestamp.fromLong(1000L), 10)) {
+
+      // Then
+      assertEquals(1000L, clock.timeAsLong());
+      assertEquals(1001L, clock.tickAsLong());
+    }
+  }
+
+  @Test
+  public void testTickRange() throws Exception {
+    // Given
+    Path file = new File(folder.getRoot(), "clock").toPath();
+    LogicalTimestampRange range;
+    try (DurableLogicalClock clock = new DurableLogicalClock(file, 10)) {
+      range = clock.tick(50);
+    }
+
+    // When
+    try (DurableLogicalClock restartedClock = new DurableLogicalClock(file, 10)) {
+
+      // Then
+      assertTrue(restartedClock.tick().isAfter(range.last()));
+    }
+  }
+
+  @Test
+  public void testListener() throws Exception {
+    // Given
+    Path file = new File(folder.getRoot(), "clock").toPath();
+    ClockStatistics statistics = new ClockStatistics();
+
+    try (DurableLogicalClock clock = new DurableLogicalClock(file, new LogicalTimestamp(), 10,
+        statistics)) {
+      // When
+      clock.tick(LogicalTimestamp.fromLong(30L));
+
+      // Then
+      assertEquals(1L, statistics.merges());
+      assertEquals(30L, statistics.totalAdvance());
+      assertEquals(31L, clock.timeAsLong());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReserveAfterClose() throws Exception {
+    Path file = new File(folder.getRoot(), "clock").toPath();
+    DurableLogicalClock clock = new DurableLogicalClock(file, 1);
+    clock.close();
+    clock.tick();
+  }
+}
@@ -0,0 +1,89 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class HybridLogicalClockTest {
+
+  @Test
+  public void testTickFollowsPhysicalTime() {
+    // Given
+    ManualTimeSource timeSource = new ManualTimeSource(1000L);
+    HybridLogicalClock clock = new HybridLogicalClock(timeSource, Long.MAX_VALUE);
+
+    // When
+    HybridTimestamp first = clock.tick();
+    HybridTimestamp second = clock.tick();
+    timeSource.currentTime = 2000L;
+    HybridTimestamp third = clock.tick();
+
+    // Then
+    assertEquals(HybridTimestamp.of(1000L, 0), first);
+    assertEquals(HybridTimestamp.of(1000L, 1), second);
+    assertEquals(HybridTimestamp.of(2000L, 0), third);
+    assertTrue(third.isAfter(second));
+    assertEquals(third, clock.time());
+  }
+
+  @Test
+  public void testTickWithHappensBeforeTick() {
+    // Given
+    ManualTimeSource timeSource = new ManualTimeSource(1000L);
+    HybridLogicalClock clock = new HybridLogicalClock(timeSource, 100L);
+    HybridTimestamp received = HybridTimestamp.of(1050L, 7);
+
+    // When
+    HybridTimestamp afterReceive = clock.tick(received);
+    HybridTimestamp afterLocal = clock.tick();
+    long afterOldReceive = clock.tickAsLong(HybridTimestamp.of(900L, 0).toLong());
+
+    // Then
+    assertEquals(HybridTimestamp.of(1050L, 8), afterReceive);
+    assertEquals(HybridTimestamp.of(1050L, 9), afterLocal);
+    assertEquals(HybridTimestamp.of(1050L, 10).toLong(), afterOldReceive);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTickExceedingMaxDrift() {
+    // Given
+    HybridLogicalClock clock = new HybridLogicalClock(new ManualTimeSource(1000L), 100L);
+
+    // When
+    clock.tick(HybridTimestamp.of(1101L, 0));
+  }
+
+  @Test
+  public void testTimestampParts() {
+    // Given
+    HybridTimestamp ts = HybridTimestamp.of(1444000000000L, 65535);
+
+    // When
+    HybridTimestamp next = HybridTimestamp.fromLong(ts.toLong() + 1);
+
+    // Then
+    assertEquals(1444000000000L, ts.physicalTime());
+    assertEquals(65535, ts.logicalCounter());
+    assertEquals(HybridTimestamp.of(1444000000001L, 0), next);
+    assertTrue(next.isAfter(ts));
+  }
+
+  private static final class ManualTimeSource implements TimeSource {
+
+    long currentTime;
+
+    ManualTimeSource(long currentTime) {
+      this.currentTime = currentTime;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+      return currentTime;
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class IntVectorTimestampTest {
+
+  @Test
+  public void testCompareMatchesFullVectorWithinBound() {
+    // Given
+    VectorClock clock0 = new VectorClock(0, 2);
+    VectorClock clock1 = new VectorClock(1, 2);
+    VectorTimestamp send = clock0.tick();
+    VectorTimestamp concurrent = clock1.tick();
+    VectorTimestamp receive = clock1.tick(send);
+
+    // When
+    IntVectorTimestamp narrowSend = IntVectorTimestamp.fromVectorTimestamp(send);
+    IntVectorTimestamp narrowConcurrent = IntVectorTimestamp.fromVectorTimestamp(concurrent);
+    IntVectorTimestamp narrowReceive = IntVectorTimestamp.fromVectorTimestamp(receive);
+
+    // Then
+    assertEquals(send.compare(receive), narrowSend.compare(narrowReceive));
+    assertEquals(send.compare(concurrent), narrowSend.compare(narrowConcurrent));
+    assertEquals(receive.compare(concurrent), narrowReceive.compare(narrowConcurrent));
+    assertEquals(receive, narrowReceive.toVectorTimestamp());
+  }
+
+  @Test
+  public void testCompareAcrossWraparound() {
+    // Given
+    IntVectorTimestamp ts1 = IntVectorTimestamp.fromInts(new int[] {Integer.MAX_VALUE - 1, 0});
+
+    // When
+    IntVectorTimestamp ts2 = ts1.nextTimestamp(0).nextTimestamp(0).nextTimestamp(0);
+
+    // Then
+    assertEquals(Integer.MIN_VALUE + 1, ts2.get(0));
+    assertTrue(ts1.isHappensBefore(ts2));
+    assertTrue(ts2.isConcurrent(IntVectorTimestamp.fromInts(new int[] {Integer.MIN_VALUE, 1})));
+    VectorTimestamp reference = VectorTimestamp.fromLongs(new long[] {Integer.MAX_VALUE, 0L});
+    assertArrayEquals(new long[] {Integer.MAX_VALUE + 2L, 0L},
+        ts2.toVectorTimestamp(reference).toLongs());
+  }
+
+  @Test
+  public void testBytesRoundTripInAnyByteOrder() {
+    // Given
+    IntVectorTimestamp ts = IntVectorTimestamp.fromInts(new int[] {1, -2, 70000});
+    ByteBuffer buffer = ByteBuffer.allocate(ts.serializedSize()).order(ByteOrder.LITTLE_ENDIAN);
+
+    // When
+    ts.writeTo(buffer);
+
+    // Then
+    assertArrayEquals(ts.toBytes(), buffer.array());
+    assertEquals(13, buffer.array().length);
+    assertEquals(ts, IntVectorTimestamp.fromBytes(buffer.array()));
+  }
+}
@@ -0,0 +1,107 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class IntervalTreeTimestampTest {
+
+  @Test
+  public void testForkEventJoin() {
+    // Given
+    IntervalTreeTimestamp seed = new IntervalTreeTimestamp();
+    IntervalTreeTimestamp[] forked = seed.fork();
+
+    // When
+    IntervalTreeTimestamp a = forked[0].nextTimestamp();
+    IntervalTreeTimestamp b = forked[1].nextTimestamp().nextTimestamp();
+    IntervalTreeTimestamp[] forkedA = a.fork();
+    IntervalTreeTimestamp a1 = forkedA[0].nextTimestamp();
+    IntervalTreeTimestamp a2 = forkedA[1].nextTimestamp(b.peek());
+    IntervalTreeTimestamp joined = a1.join(a2).join(b);
+
+    // Then
+    assertEquals("((1, 0), (0, 1, 0))", a.toString());
+    assertEquals(Relation.CONCURRENT, a.compare(b));
+    assertEquals(Relation.CONCURRENT, a1.compare(a2));
+    assertTrue(a.isHappensBefore(a1));
+    assertTrue(a2.isHappensAfter(b));
+    assertTrue(joined.isHappensAfter(a1));
+    assertTrue(joined.isHappensAfter(a2));
+    assertEquals("(1, 2)", joined.toString());
+    assertEquals(seed.fork()[0].nextTimestamp(), forked[0].nextTimestamp());
+  }
+
+  @Test
+  public void testPeek() {
+    // Given
+    IntervalTreeTimestamp ts = new IntervalTreeTimestamp().nextTimestamp();
+
+    // When
+    IntervalTreeTimestamp peek = ts.peek();
+
+    // Then
+    assertTrue(peek.isAnonymous());
+    assertFalse(ts.isAnonymous());
+    assertEquals(Relation.EQUAL, peek.compare(ts));
+    assertTrue(peek.leq(ts));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAnonymousEvent() {
+    new IntervalTreeTimestamp().peek().nextTimestamp();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testJoinOverlappingIds() {
+    IntervalTreeTimestamp ts = new IntervalTreeTimestamp();
+    ts.join(ts.fork()[0]);
+  }
+
+  @Test
+  public void testBytesSerialization() {
+    // Given
+    IntervalTreeTimestamp[] forked = new IntervalTreeTimestamp().fork();
+    IntervalTreeTimestamp original =
+        forked[0].nextTimestamp().nextTimestamp(forked[1].nextTimestamp()).fork()[1];
+
+    // When
+    byte[] tsBytes = original.toBytes();
+    IntervalTreeTimestamp deserialized = IntervalTreeTimestamp.fromBytes(tsBytes);
+
+    // Then
+    assertEquals(original, deserialized);
+    assertEquals(original.serializedSize(), tsBytes.length);
+    assertEquals(original.nextTimestamp(), deserialized.nextTimestamp());
+  }
+
+  @Test
+  public void testJavaSerialization() throws Exception {
+    // Given
+    IntervalTreeTimestamp original = new IntervalTreeTimestamp().fork()[1].nextTimestamp();
+
+    // When
+    ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(byteOutput);
+    out.writeObject(original);
+
+    ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(byteOutput.toByteArray()));
+    IntervalTreeTimestamp deserialized = (IntervalTreeTimestamp) in.readObject();
+
+    // Then
+    assertEquals(original, deserialized);
+    assertEquals(original.nextTimestamp(), deserialized.nextTimestamp());
+  }
+
+}
@@ -89,6 +89,68 @@ public class LogicalClockTest {
     assertTrue(resultTimestamp.compareTo(initialTimestamp) > 0);
   }
 
+  @Test
+  public void testTickAsLong() {
+    // Given
+    LogicalClock clock = new LogicalClock(LogicalTimestamp.fromLong(Long.MAX_VALUE));
+
+    // When
+    long after = clock.tickAsLong();
+
+    // Then
+    assertEquals(Long.MIN_VALUE, after);
+    assertEquals(after, clock.timeAsLong());
+    assertTrue(LogicalTimestamp.compare(after, Long.MAX_VALUE) > 0);
+  }
+
+  @Test
+  public void testTickAsLongWithHappensBeforeTick() {
+    // Given
+    LogicalClock clock = new LogicalClock(LogicalTimestamp.fromLong(10L));
+
+    // When
+    long afterNew = clock.tickAsLong(100L);
+    long afterOld = clock.tickAsLong(50L);
+
+    // Then
+    assertEquals(101L, afterNew);
+    assertEquals(102L, afterOld);
+    assertEquals(LogicalTimestamp.fromLong(102L), clock.time());
+  }
+
+  @Test
+  public void testTickRange() {
+    // Given
+    LogicalClock clock = new LogicalClock(LogicalTimestamp.fromLong(10L));
+
+    // When
+    LogicalTimestampRange range = clock.tick(5);
+    LogicalTimestamp after = clock.tick();
+
+    // Then
+    assertEquals(5, range.size());
+    assertEquals(LogicalTimestamp.fromLong(11L), range.first());
+    assertEquals(LogicalTimestamp.fromLong(15L), range.last());
+    assertTrue(range.get(1).isAfter(range.get(0)));
+    assertTrue(after.isAfter(range.last()));
+  }
+
+  @Test
+  public void testTickRangeWithHappensBeforeTick() {
+    // Given
+    LogicalClock clock = new LogicalClock(LogicalTimestamp.fromLong(10L));
+
+    // When
+    LogicalTimestampRange newRange = clock.tick(3, LogicalTimestamp.fromLong(100L));
+    LogicalTimestampRange oldRange = clock.tick(3, LogicalTimestamp.fromLong(50L));
+
+    // Then
+    assertEquals(101L, newRange.firstAsLong());
+    assertEquals(103L, newRange.lastAsLong());
+    assertEquals(104L, oldRange.firstAsLong());
+    assertEquals(106L, clock.timeAsLong());
+  }
+
   @Test
   public void testTickThreadSafe() throws Exception {
     // Given
@@ -122,4 +184,25 @@ public class LogicalClockTest {
     assertEquals(expectedTimestamp, actualTimestamp);
   }
 
+
+  @Test
+  public void testListener() {
+    // Given
+    ClockStatistics statistics = new ClockStatistics();
+    LogicalClock clock = new LogicalClock(new LogicalTimestamp(), statistics);
+    clock.tick();
+
+    // When
+    clock.tick(LogicalTimestamp.fromLong(10L));
+    clock.tick(LogicalTimestamp.fromLong(5L));
+    clock.tick(3, LogicalTimestamp.fromLong(20L));
+
+    // Then
+    assertEquals(3L, statistics.merges());
+    assertEquals(2L, statistics.advancingMerges());
+    assertEquals(9L + 8L, statistics.totalAdvance());
+    assertEquals(9L, statistics.maxAdvance());
+    assertEquals(0L, statistics.contentions());
+    assertEquals(23L, clock.timeAsLong());
+  }
 }
@@ -1,5 +1,6 @@
 package com.antonkharenko.logicalclocks;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -9,6 +10,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.junit.Test;
 
@@ -125,6 +128,59 @@ public class LogicalTimestampTest {
     assertEquals(original, deserialized);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testBytesDeserializationWrongLength() {
+    LogicalTimestamp.fromBytes(new byte[] {1, 2, 3});
+  }
+
+  @Test
+  public void testByteBufferSerialization() {
+    // Given
+    LogicalTimestamp original = LogicalTimestamp.fromLong(-1001);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.LITTLE_ENDIAN);
+
+    // When
+    original.writeTo(buffer);
+    original.writeTo(buffer, 8);
+    buffer.rewind();
+    byte[] writtenBytes = new byte[8];
+    buffer.duplicate().get(writtenBytes);
+    LogicalTimestamp deserialized = LogicalTimestamp.readFrom(buffer);
+    LogicalTimestamp deserializedAtIndex = LogicalTimestamp.readFrom(buffer, 8);
+
+    // Then
+    assertArrayEquals(original.toBytes(), writtenBytes);
+    assertEquals(original, deserialized);
+    assertEquals(original, deserializedAtIndex);
+    assertEquals(8, buffer.position());
+  }
+
+  @Test
+  public void testBulkByteBufferSerialization() {
+    // Given
+    long[] original = {1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE};
+    LogicalTimestamp[] originalTimestamps = new LogicalTimestamp[original.length];
+    for (int i = 0; i < original.length; i++) {
+      originalTimestamps[i] = LogicalTimestamp.fromLong(original[i]);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(2 * 8 * original.length).order(ByteOrder.LITTLE_ENDIAN);
+
+    // When
+    LogicalTimestamp.writeTo(buffer, original, 0, original.length);
+    LogicalTimestamp.writeTo(buffer, originalTimestamps, 0, originalTimestamps.length);
+    buffer.flip();
+    LogicalTimestamp[] deserializedTimestamps = new LogicalTimestamp[original.length];
+    LogicalTimestamp.readFrom(buffer, deserializedTimestamps, 0, deserializedTimestamps.length);
+    long[] deserialized = new long[original.length];
+    LogicalTimestamp.readFrom(buffer, deserialized, 0, deserialized.length);
+
+    // Then
+    assertArrayEquals(original, deserialized);
+    assertArrayEquals(originalTimestamps, deserializedTimestamps);
+    assertEquals(originalTimestamps[1], LogicalTimestamp.readFrom(buffer, 8));
+    assertFalse(buffer.hasRemaining());
+  }
+
   @Test
   public void testLongSerialization() {
     // Given
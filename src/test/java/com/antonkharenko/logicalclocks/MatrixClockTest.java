@@ -0,0 +1,98 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class MatrixClockTest {
+
+  @Test
+  public void testStableAfterAllProcessesKnow() {
+    // Given
+    MatrixClock clock0 = new MatrixClock(0, 3);
+    MatrixClock clock1 = new MatrixClock(1, 3);
+    MatrixClock clock2 = new MatrixClock(2, 3);
+    VectorTimestamp event = clock0.tick();
+
+    // When
+    clock1.tick(0, clock0.matrix());
+    clock2.tick(0, clock0.matrix());
+    boolean stableBeforeReplies = clock0.isStable(0, event.getAsLong(0));
+    clock0.tick(1, clock1.matrix());
+    clock0.tick(2, clock2.matrix());
+
+    // Then
+    assertFalse(stableBeforeReplies);
+    assertTrue(clock0.isStable(0, event.getAsLong(0)));
+    assertArrayEquals(new long[] {1L, 0L, 0L}, clock0.stableTime().toLongs());
+    assertEquals(clock1.time(), clock0.knownTime(1));
+  }
+
+  @Test
+  public void testTickWithSenderTimestamp() {
+    // Given
+    MatrixClock clock0 = new MatrixClock(0, 2);
+    MatrixClock clock1 = new MatrixClock(1, 2);
+
+    // When
+    VectorTimestamp sent = clock0.tick();
+    VectorTimestamp received = clock1.tick(0, sent);
+    clock0.tick(1, received);
+
+    // Then
+    assertTrue(received.isHappensAfter(sent));
+    assertEquals(sent, clock1.knownTime(0));
+    assertArrayEquals(new long[] {1L, 1L}, clock0.stableTime().toLongs());
+  }
+
+  @Test
+  public void testStableTimeIsColumnMinimum() {
+    // Given
+    Random random = new Random(5L);
+    int processCount = 5;
+    MatrixClock[] clocks = new MatrixClock[processCount];
+    for (int i = 0; i < processCount; i++) {
+      clocks[i] = new MatrixClock(i, processCount);
+    }
+
+    for (int step = 0; step < 2000; step++) {
+      // When
+      int receiver = random.nextInt(processCount);
+      int sender = random.nextInt(processCount);
+      if (sender == receiver) {
+        clocks[receiver].tick();
+      } else if (random.nextBoolean()) {
+        clocks[receiver].tick(sender, clocks[sender].matrix());
+      } else {
+        clocks[receiver].tick(sender, clocks[sender].time());
+      }
+
+      // Then
+      assertArrayEquals(columnMinimum(clocks[receiver].matrix()),
+          clocks[receiver].stableTime().toLongs());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongSenderIndex() {
+    new MatrixClock(0, 2).tick(2, new VectorTimestamp(2));
+  }
+
+  private static long[] columnMinimum(VectorTimestamp[] matrix) {
+    long[] minimum = matrix[0].toLongs();
+    for (VectorTimestamp row : matrix) {
+      for (int j = 0; j < minimum.length; j++) {
+        minimum[j] = Math.min(minimum[j], row.getAsLong(j));
+      }
+    }
+    return minimum;
+  }
+}
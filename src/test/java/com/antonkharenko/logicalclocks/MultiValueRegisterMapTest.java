@@ -0,0 +1,129 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class MultiValueRegisterMapTest {
+
+  @Test
+  public void testConcurrentPutsBecomeSiblings() {
+    // Given
+    MultiValueRegisterMap<String, String> map = new MultiValueRegisterMap<>(2);
+    VectorClock clock0 = new VectorClock(0, 2);
+    VectorClock clock1 = new VectorClock(1, 2);
+
+    // When
+    assertTrue(map.put("key", "a", clock0.tick()));
+    assertTrue(map.put("key", "b", clock1.tick()));
+
+    // Then
+    MultiValueRegisterMap.Siblings<String> siblings = map.get("key");
+    assertEquals(Arrays.asList("a", "b"), siblings.values());
+    assertEquals(VectorTimestamp.fromLongs(new long[] {1L, 1L}), siblings.context());
+    assertEquals(VectorTimestamp.fromLongs(new long[] {0L, 1L}), siblings.timestamp(1));
+  }
+
+  @Test
+  public void testPutWithContextDropsDominatedSiblings() {
+    // Given
+    MultiValueRegisterMap<String, String> map = new MultiValueRegisterMap<>(3);
+    VectorClock clock0 = new VectorClock(0, 3);
+    VectorClock clock1 = new VectorClock(1, 3);
+    VectorClock clock2 = new VectorClock(2, 3);
+    map.put("key", "a", clock0.tick());
+    map.put("key", "b", clock1.tick());
+    VectorTimestamp concurrent = clock2.tick();
+
+    // When
+    VectorTimestamp resolved = clock0.tick(map.get("key").context());
+    assertTrue(map.put("key", "ab", resolved));
+    assertTrue(map.put("key", "c", concurrent));
+
+    // Then
+    MultiValueRegisterMap.Siblings<String> siblings = map.get("key");
+    assertEquals(Arrays.asList("ab", "c"), siblings.values());
+    assertEquals(resolved, siblings.timestamp(0));
+    assertEquals("{ab=[2, 1, 0], c=[0, 0, 1]}", siblings.toString());
+  }
+
+  @Test
+  public void testObsoletePutIsIgnored() {
+    // Given
+    MultiValueRegisterMap<String, String> map = new MultiValueRegisterMap<>(2);
+    VectorClock clock = new VectorClock(0, 2);
+    VectorTimestamp first = clock.tick();
+    VectorTimestamp second = clock.tick();
+    map.put("key", "second", second);
+
+    // When
+    boolean storedFirst = map.put("key", "first", first);
+    boolean storedDuplicate = map.put("key", "duplicate", second);
+
+    // Then
+    assertFalse(storedFirst);
+    assertFalse(storedDuplicate);
+    assertEquals(Arrays.asList("second"), map.get("key").values());
+    assertEquals(1, map.size());
+    assertEquals(Arrays.asList("second"), map.remove("key").values());
+    assertNull(map.get("key"));
+  }
+
+  @Test
+  public void testConcurrentWriters() throws Exception {
+    // Given
+    final int threads = 4;
+    final int puts = 1000;
+    final MultiValueRegisterMap<String, Integer> map = new MultiValueRegisterMap<>(threads);
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    // When
+    for (int t = 0; t < threads; t++) {
+      final VectorClock clock = new VectorClock(t, threads);
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < puts; i++) {
+            map.put("key", i, clock.tick());
+          }
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    // Then
+    MultiValueRegisterMap.Siblings<Integer> siblings = map.get("key");
+    assertEquals(threads, siblings.size());
+    for (int i = 0; i < threads; i++) {
+      assertEquals(Integer.valueOf(puts - 1), siblings.value(i));
+    }
+    long[] context = new long[threads];
+    Arrays.fill(context, puts);
+    assertEquals(VectorTimestamp.fromLongs(context), siblings.context());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPutWrongLength() {
+    new MultiValueRegisterMap<String, String>(2).put("key", "a", new VectorTimestamp(3));
+  }
+}
@@ -0,0 +1,109 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class ScalableVectorClockTest {
+
+  @Test
+  public void testTickWithHappensBeforeTick() {
+    // Given
+    VectorClock senderClock = new VectorClock(0, 3);
+    ScalableVectorClock receiverClock = new ScalableVectorClock(1, 3);
+
+    // When
+    VectorTimestamp sent = senderClock.tick();
+    VectorTimestamp local = receiverClock.tick();
+    VectorTimestamp received = receiverClock.tick(sent);
+    VectorTimestamp next = receiverClock.tick();
+
+    // Then
+    assertTrue(sent.isConcurrent(local));
+    assertTrue(received.isHappensAfter(sent));
+    assertTrue(received.isHappensAfter(local));
+    assertArrayEquals(new long[] {1L, 3L, 0L}, next.toLongs());
+    assertEquals(next, receiverClock.time());
+  }
+
+  @Test
+  public void testTickWithBatch() {
+    // Given
+    ScalableVectorClock clock = new ScalableVectorClock(0, 3);
+    VectorTimestamp[] batch = {VectorTimestamp.fromLongs(new long[] {0L, 4L, 1L}),
+        VectorTimestamp.fromLongs(new long[] {0L, 2L, 6L})};
+
+    // When
+    VectorTimestamp received = clock.tick(batch);
+
+    // Then
+    assertArrayEquals(new long[] {1L, 4L, 6L}, received.toLongs());
+  }
+
+  @Test
+  public void testConcurrentTicksAndMerges() throws Exception {
+    // Given
+    final int threadCount = 8;
+    final int tickCount = 5000;
+    final ScalableVectorClock clock = new ScalableVectorClock(0, 2);
+    final ConcurrentLinkedQueue<VectorTimestamp> stamps = new ConcurrentLinkedQueue<>();
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      final boolean merging = t == 0;
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 1; i <= tickCount; i++) {
+            if (merging) {
+              stamps.add(clock.tick(VectorTimestamp.fromLongs(new long[] {0L, i})));
+            } else {
+              stamps.add(clock.tick());
+            }
+          }
+        }
+      };
+      thread.start();
+      threads.add(thread);
+    }
+
+    // When
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // Then
+    List<VectorTimestamp> sorted = new ArrayList<>(stamps);
+    Collections.sort(sorted, new Comparator<VectorTimestamp>() {
+      @Override
+      public int compare(VectorTimestamp first, VectorTimestamp second) {
+        return Long.compare(first.getAsLong(0), second.getAsLong(0));
+      }
+    });
+    assertEquals(threadCount * tickCount, sorted.size());
+    for (int i = 1; i < sorted.size(); i++) {
+      assertTrue(sorted.get(i).isHappensAfter(sorted.get(i - 1)));
+    }
+    assertEquals(tickCount, clock.time().getAsLong(1));
+    assertFalse(clock.time().isHappensBefore(sorted.get(sorted.size() - 1)));
+  }
+}
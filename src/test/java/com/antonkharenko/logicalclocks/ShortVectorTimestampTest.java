@@ -0,0 +1,79 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class ShortVectorTimestampTest {
+
+  @Test
+  public void testCompareAcrossWraparound() {
+    // Given
+    ShortVectorTimestamp ts1 = ShortVectorTimestamp.fromShorts(new short[] {Short.MAX_VALUE, 5});
+    ShortVectorTimestamp ts2 = ts1.nextTimestamp(0);
+    ShortVectorTimestamp ts3 = ShortVectorTimestamp.fromShorts(
+        new short[] {(short) (Short.MIN_VALUE + 10), 5});
+    ShortVectorTimestamp ts4 = ShortVectorTimestamp.fromShorts(new short[] {Short.MAX_VALUE, 6});
+
+    // Then
+    assertEquals(Short.MIN_VALUE, ts2.get(0));
+    assertEquals(Relation.HAPPENS_BEFORE, ts1.compare(ts2));
+    assertEquals(Relation.HAPPENS_AFTER, ts3.compare(ts2));
+    assertEquals(Relation.HAPPENS_BEFORE, ts1.compare(ts3));
+    assertEquals(Relation.CONCURRENT, ts2.compare(ts4));
+    assertEquals(Relation.EQUAL, ts2.compare(ShortVectorTimestamp.fromShorts(ts2.toShorts())));
+  }
+
+  @Test
+  public void testNextTimestampMergesAcrossWraparound() {
+    // Given
+    ShortVectorTimestamp local = ShortVectorTimestamp.fromShorts(new short[] {3, Short.MAX_VALUE});
+    ShortVectorTimestamp received = ShortVectorTimestamp.fromShorts(new short[] {1, -30000});
+
+    // When
+    ShortVectorTimestamp next = local.nextTimestamp(0, received);
+
+    // Then
+    assertArrayEquals(new short[] {4, -30000}, next.toShorts());
+    assertTrue(next.isHappensAfter(local));
+    assertTrue(next.isHappensAfter(received));
+  }
+
+  @Test
+  public void testConversionsToFullVector() {
+    // Given
+    VectorTimestamp full = VectorTimestamp.fromLongs(new long[] {70000L, 65535L, 3L});
+
+    // When
+    ShortVectorTimestamp narrow = ShortVectorTimestamp.fromVectorTimestamp(full);
+
+    // Then
+    assertArrayEquals(new short[] {4464, -1, 3}, narrow.toShorts());
+    assertArrayEquals(new long[] {4464L, 65535L, 3L}, narrow.toVectorTimestamp().toLongs());
+    VectorTimestamp reference = VectorTimestamp.fromLongs(new long[] {69000L, 66000L, 0L});
+    assertEquals(full, narrow.toVectorTimestamp(reference));
+  }
+
+  @Test
+  public void testBytesRoundTrip() {
+    // Given
+    ShortVectorTimestamp ts = ShortVectorTimestamp.fromShorts(new short[] {1, -2, 300});
+
+    // When
+    byte[] bytes = ts.toBytes();
+
+    // Then
+    assertEquals(7, bytes.length);
+    assertEquals(ts, ShortVectorTimestamp.fromBytes(bytes));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromBytesWithMalformedLength() {
+    ShortVectorTimestamp.fromBytes(new byte[] {3, 0, 1});
+  }
+}
@@ -0,0 +1,83 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class SparseVectorTimestampTest {
+
+  @Test
+  public void testNextTimestamp() {
+    // Given
+    SparseVectorTimestamp ts = new SparseVectorTimestamp();
+
+    // When
+    SparseVectorTimestamp ts1 = ts.nextTimestamp(1000);
+    SparseVectorTimestamp ts2 = ts1.nextTimestamp(7).nextTimestamp(1000);
+
+    // Then
+    assertEquals(0, ts.size());
+    assertArrayEquals(new int[] {7, 1000}, ts2.processIds());
+    assertEquals(1L, ts2.getAsLong(7));
+    assertEquals(2L, ts2.getAsLong(1000));
+    assertEquals(0L, ts2.getAsLong(5));
+    assertEquals(Relation.HAPPENS_BEFORE, ts.compare(ts1));
+    assertEquals(Relation.HAPPENS_AFTER, ts2.compare(ts1));
+  }
+
+  @Test
+  public void testNextTimestampWithHappensBefore() {
+    // Given
+    SparseVectorTimestamp ts =
+        SparseVectorTimestamp.fromLongs(new int[] {1, 5, 9}, new long[] {4L, 2L, 3L});
+    SparseVectorTimestamp happensBeforeTs =
+        SparseVectorTimestamp.fromLongs(new int[] {0, 5, 12}, new long[] {1L, 8L, 2L});
+
+    // When
+    SparseVectorTimestamp nextTs = ts.nextTimestamp(3, happensBeforeTs);
+
+    // Then
+    assertEquals(SparseVectorTimestamp.fromLongs(new int[] {0, 1, 3, 5, 9, 12},
+        new long[] {1L, 4L, 1L, 8L, 3L, 2L}), nextTs);
+    assertTrue(nextTs.isHappensAfter(ts));
+    assertTrue(nextTs.isHappensAfter(happensBeforeTs));
+  }
+
+  @Test
+  public void testCompareDifferentMembership() {
+    // Given
+    SparseVectorTimestamp ts = new SparseVectorTimestamp().nextTimestamp(Integer.MAX_VALUE);
+
+    // When
+    SparseVectorTimestamp ts1 = ts.nextTimestamp(1);
+    SparseVectorTimestamp ts2 = ts.nextTimestamp(2);
+
+    // Then
+    assertTrue(ts1.isConcurrent(ts2));
+    assertTrue(ts.isHappensBefore(ts2));
+    assertEquals(Relation.EQUAL,
+        ts1.compare(SparseVectorTimestamp.fromLongs(new int[] {1, 2, Integer.MAX_VALUE},
+            new long[] {1L, 0L, 1L})));
+  }
+
+  @Test
+  public void testBytesSerialization() {
+    // Given
+    SparseVectorTimestamp original = SparseVectorTimestamp.fromLongs(
+        new int[] {0, 130, 2000, Integer.MAX_VALUE}, new long[] {1L, 300L, -1L, 5L});
+
+    // When
+    byte[] tsBytes = original.toBytes();
+    SparseVectorTimestamp deserialized = SparseVectorTimestamp.fromBytes(tsBytes);
+
+    // Then
+    assertEquals(original, deserialized);
+    assertEquals(original.serializedSize(), tsBytes.length);
+  }
+
+}
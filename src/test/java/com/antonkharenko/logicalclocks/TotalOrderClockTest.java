@@ -0,0 +1,126 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class TotalOrderClockTest {
+
+  @Test
+  public void testTick() {
+    // Given
+    TotalOrderClock clock = new TotalOrderClock(7);
+    TotalOrderTimestamp initialTimestamp = clock.time();
+
+    // When
+    TotalOrderTimestamp after = clock.tick();
+
+    // Then
+    assertTrue(after.isAfter(initialTimestamp));
+    assertEquals(1L, after.counter());
+    assertEquals(7, after.nodeId());
+    assertEquals(TotalOrderTimestamp.of(2L, 7, 16).toLong(), clock.tickAsLong());
+  }
+
+  @Test
+  public void testConcurrentEventsAreNotEqual() {
+    // Given
+    TotalOrderClock clock1 = new TotalOrderClock(1, 8);
+    TotalOrderClock clock2 = new TotalOrderClock(2, 8);
+
+    // When
+    TotalOrderTimestamp ts1 = clock1.tick();
+    TotalOrderTimestamp ts2 = clock2.tick();
+
+    // Then
+    assertEquals(ts1.counter(), ts2.counter());
+    assertNotEquals(ts1, ts2);
+    assertTrue(ts1.isBefore(ts2));
+    assertEquals(ts1.toLogicalTimestamp(), ts2.toLogicalTimestamp());
+  }
+
+  @Test
+  public void testTickWithHappensBeforeTick() {
+    // Given
+    TotalOrderClock senderClock = new TotalOrderClock(1, 8);
+    TotalOrderClock receiverClock = new TotalOrderClock(0, 8);
+    senderClock.tick();
+    TotalOrderTimestamp sent = senderClock.tick();
+
+    // When
+    TotalOrderTimestamp received = receiverClock.tick(sent);
+
+    // Then
+    assertTrue(received.isAfter(sent));
+    assertEquals(3L, received.counter());
+    assertEquals(0, received.nodeId());
+  }
+
+  @Test
+  public void testTickWithSameCounterFromSmallerNode() {
+    // Given
+    TotalOrderClock senderClock = new TotalOrderClock(0, 8);
+    TotalOrderClock receiverClock = new TotalOrderClock(1, 8);
+    TotalOrderTimestamp sent = senderClock.tick();
+    receiverClock.tick();
+
+    // When
+    TotalOrderTimestamp received = receiverClock.tick(sent);
+
+    // Then
+    assertEquals(2L, received.counter());
+    assertTrue(received.isAfter(sent));
+  }
+
+  @Test
+  public void testCounterOverflow() {
+    // Given
+    int nodeBits = 8;
+    long maxCounter = -1L >>> nodeBits;
+    TotalOrderTimestamp beforeOverflow = TotalOrderTimestamp.of(maxCounter, 3, nodeBits);
+    TotalOrderClock clock = new TotalOrderClock(5, nodeBits);
+    // Clock catches up with the sender in steps shorter than half of the cycle
+    clock.tick(TotalOrderTimestamp.of(maxCounter / 3, 3, nodeBits));
+    clock.tick(TotalOrderTimestamp.of(maxCounter / 3 * 2, 3, nodeBits));
+    clock.tick(TotalOrderTimestamp.of(maxCounter - 2, 3, nodeBits));
+
+    // When
+    TotalOrderTimestamp afterOverflow = clock.tick(beforeOverflow);
+
+    // Then
+    assertEquals(0L, afterOverflow.counter());
+    assertEquals(5, afterOverflow.nodeId());
+    assertTrue(afterOverflow.isAfter(beforeOverflow));
+    assertTrue(beforeOverflow.isBefore(afterOverflow));
+  }
+
+  @Test
+  public void testLongConversion() {
+    // Given
+    TotalOrderTimestamp original = TotalOrderTimestamp.of(123456L, 42, 10);
+
+    // When
+    TotalOrderTimestamp converted = TotalOrderTimestamp.fromLong(original.toLong(), 10);
+
+    // Then
+    assertEquals(original, converted);
+    assertEquals(123456L, converted.counter());
+    assertEquals(42, converted.nodeId());
+    assertEquals("123456@42", converted.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNodeIdOutOfRange() {
+    new TotalOrderClock(256, 8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompareDifferentNodeBits() {
+    TotalOrderTimestamp.of(1L, 1, 8).compareTo(TotalOrderTimestamp.of(1L, 1, 16));
+  }
+}
@@ -0,0 +1,168 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Anton Kharenko
+ */
+public class TraceLinearizerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testVectorTraceIsLinearExtension() throws Exception {
+    // Given
+    List<Path> segments = segments(3);
+    VectorClock[] clocks = {new VectorClock(0, 3), new VectorClock(1, 3), new VectorClock(2, 3)};
+    TraceSegmentWriter[] writers = new TraceSegmentWriter[3];
+    for (int i = 0; i < 3; i++) {
+      writers[i] = new TraceSegmentWriter(segments.get(i), 16);
+    }
+    VectorTimestamp message = null;
+    for (int step = 0; step < 60; step++) {
+      int process = step * 7 % 3;
+      VectorTimestamp ts = step % 5 == 0 && message != null
+          ? clocks[process].tick(message) : clocks[process].tick();
+      if (step % 4 == 0) {
+        message = ts;
+      }
+      writers[process].append(ts, new byte[step % 50]);
+    }
+    for (TraceSegmentWriter writer : writers) {
+      writer.close();
+    }
+
+    // When
+    List<VectorTimestamp> order = new ArrayList<>();
+    List<Integer> processes = new ArrayList<>();
+    try (TraceLinearizer<VectorTimestamp> linearizer = TraceLinearizer.ofVectorTrace(segments, 8)) {
+      TraceLinearizer.Event<VectorTimestamp> event;
+      while ((event = linearizer.next()) != null) {
+        order.add(event.timestamp());
+        processes.add(event.processIndex());
+      }
+    }
+
+    // Then
+    assertEquals(60, order.size());
+    for (int i = 0; i < order.size(); i++) {
+      for (int j = i + 1; j < order.size(); j++) {
+        assertFalse(order.get(j).isHappensBefore(order.get(i)));
+      }
+    }
+    try (TraceLinearizer<VectorTimestamp> linearizer = TraceLinearizer.ofVectorTrace(segments)) {
+      for (int i = 0; i < order.size(); i++) {
+        TraceLinearizer.Event<VectorTimestamp> event = linearizer.next();
+        assertEquals(order.get(i), event.timestamp());
+        assertEquals(processes.get(i).intValue(), event.processIndex());
+      }
+      assertNull(linearizer.next());
+    }
+  }
+
+  @Test
+  public void testLamportTraceBreaksTiesByProcessIndex() throws Exception {
+    // Given
+    List<Path> segments = segments(2);
+    try (TraceSegmentWriter writer0 = new TraceSegmentWriter(segments.get(0));
+        TraceSegmentWriter writer1 = new TraceSegmentWriter(segments.get(1))) {
+      writer0.append(LogicalTimestamp.fromLong(1L), new byte[] {10});
+      writer0.append(LogicalTimestamp.fromLong(3L), new byte[] {11});
+      writer1.append(LogicalTimestamp.fromLong(1L), new byte[] {20});
+      writer1.append(LogicalTimestamp.fromLong(2L), new byte[] {21});
+    }
+
+    // When
+    List<Byte> payloads = new ArrayList<>();
+    try (TraceLinearizer<LogicalTimestamp> linearizer = TraceLinearizer.ofLamportTrace(segments)) {
+      TraceLinearizer.Event<LogicalTimestamp> event;
+      while ((event = linearizer.next()) != null) {
+        payloads.add(event.payload()[0]);
+      }
+    }
+
+    // Then
+    assertEquals(Arrays.asList((byte) 10, (byte) 20, (byte) 21, (byte) 11), payloads);
+  }
+
+  @Test
+  public void testReaderMapsRecordsLargerThanWindow() throws Exception {
+    // Given
+    Path segment = segments(1).get(0);
+    byte[] payload = new byte[100];
+    Arrays.fill(payload, (byte) 7);
+    try (TraceSegmentWriter writer = new TraceSegmentWriter(segment, 8)) {
+      writer.append(LogicalTimestamp.fromLong(5L), payload);
+      writer.append(LogicalTimestamp.fromLong(6L), new byte[0]);
+    }
+
+    // When
+    try (TraceSegmentReader reader = new TraceSegmentReader(segment, 4)) {
+      ByteBuffer first = reader.nextRecord();
+      assertEquals(5L, LogicalTimestamp.readFrom(first).toLong());
+      byte[] firstPayload = new byte[first.remaining()];
+      first.get(firstPayload);
+
+      // Then
+      assertArrayEquals(payload, firstPayload);
+      assertEquals(6L, LogicalTimestamp.readFrom(reader.nextRecord()).toLong());
+      assertNull(reader.nextRecord());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedSegment() throws Exception {
+    Path segment = segments(1).get(0);
+    try (TraceSegmentWriter writer = new TraceSegmentWriter(segment)) {
+      writer.append(LogicalTimestamp.fromLong(5L), new byte[4]);
+    }
+    byte[] bytes = Files.readAllBytes(segment);
+    Files.write(segment, Arrays.copyOf(bytes, bytes.length - 1));
+    TraceLinearizer.ofLamportTrace(Arrays.asList(segment));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnorderedSegment() throws Exception {
+    List<Path> segments = segments(1);
+    try (TraceSegmentWriter writer = new TraceSegmentWriter(segments.get(0))) {
+      writer.append(LogicalTimestamp.fromLong(5L), new byte[0]);
+      writer.append(LogicalTimestamp.fromLong(4L), new byte[0]);
+    }
+    try (TraceLinearizer<LogicalTimestamp> linearizer = TraceLinearizer.ofLamportTrace(segments)) {
+      linearizer.next();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrappedVectorEntry() throws Exception {
+    List<Path> segments = segments(1);
+    try (TraceSegmentWriter writer = new TraceSegmentWriter(segments.get(0))) {
+      writer.append(VectorTimestamp.fromLongs(new long[] {Long.MAX_VALUE, 1L}), new byte[0]);
+    }
+    TraceLinearizer.ofVectorTrace(segments);
+  }
+
+  private List<Path> segments(int count) {
+    List<Path> segments = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      segments.add(new File(folder.getRoot(), "segment-" + i).toPath());
+    }
+    return segments;
+  }
+}
@@ -0,0 +1,120 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class VectorClockPrunerTest {
+
+  @Test
+  public void testPruneAfterAllLiveProcessesAcknowledged() {
+    // Given
+    VectorClockPruner pruner = new VectorClockPruner(3);
+    VectorClock clock0 = new VectorClock(0, 3);
+    VectorClock clock1 = new VectorClock(1, 3);
+    VectorClock clock2 = new VectorClock(2, 3);
+    VectorTimestamp last = clock1.tick();
+    pruner.retire(1, last.getAsLong(1));
+
+    // When
+    pruner.acknowledge(0, clock0.tick(last));
+    boolean prunableBeforeAll = pruner.shouldPrune();
+    pruner.acknowledge(2, clock2.tick(last));
+
+    // Then
+    assertFalse(prunableBeforeAll);
+    assertTrue(pruner.shouldPrune());
+    assertEquals(1, pruner.prunableCount());
+
+    VectorClockPruner.Pruning pruning = pruner.prune();
+    assertEquals(2, pruner.length());
+    assertEquals(3, pruning.oldLength());
+    assertEquals(2, pruning.newLength());
+    assertEquals(0, pruning.newIndex(0));
+    assertEquals(-1, pruning.newIndex(1));
+    assertEquals(1, pruning.newIndex(2));
+    assertTrue(pruning.isExact(clock2.time()));
+    assertArrayEquals(new long[] {0L, 1L}, pruning.project(clock2.time()).toLongs());
+  }
+
+  @Test
+  public void testStaleTimestampIsReported() {
+    // Given
+    VectorClockPruner pruner = new VectorClockPruner(2);
+    VectorClock clock0 = new VectorClock(0, 2);
+    VectorClock clock1 = new VectorClock(1, 2);
+    VectorTimestamp stale = clock0.tick();
+    VectorTimestamp last = clock1.tick();
+    pruner.retire(1, last.getAsLong(1));
+    pruner.acknowledge(0, clock0.tick(last));
+
+    // When
+    VectorClockPruner.Pruning pruning = pruner.prune();
+
+    // Then
+    assertFalse(pruning.isExact(stale));
+    assertTrue(stale.isConcurrent(last));
+    assertTrue(pruning.project(stale).isHappensBefore(pruning.project(clock0.time())));
+  }
+
+  @Test
+  public void testRetiredProcessesDoNotNeedToAcknowledge() {
+    // Given
+    VectorClockPruner pruner = new VectorClockPruner(4);
+    pruner.retire(1, 5L);
+    pruner.retire(3, 7L);
+
+    // When
+    pruner.acknowledge(0, VectorTimestamp.fromLongs(new long[] {1L, 5L, 0L, 6L}));
+    pruner.acknowledge(2, VectorTimestamp.fromLongs(new long[] {1L, 5L, 2L, 7L}));
+
+    // Then
+    assertEquals(1, pruner.prunableCount());
+    VectorClockPruner.Pruning pruning = pruner.prune();
+    assertEquals(3, pruning.newLength());
+    assertTrue(pruner.isRetired(2));
+    assertEquals(0, pruner.prunableCount());
+
+    pruner.acknowledge(0, VectorTimestamp.fromLongs(new long[] {2L, 2L, 7L}));
+    assertEquals(1, pruner.prunableCount());
+    assertEquals(2, pruner.prune().newLength());
+  }
+
+  @Test
+  public void testThresholds() {
+    // Given
+    final long[] now = {1000L};
+    TimeSource timeSource = new TimeSource() {
+      @Override
+      public long currentTimeMillis() {
+        return now[0];
+      }
+    };
+    VectorClockPruner pruner = new VectorClockPruner(4, 2, 500L, timeSource);
+    pruner.retire(3, 1L);
+
+    // When
+    pruner.acknowledge(0, VectorTimestamp.fromLongs(new long[] {0L, 0L, 0L, 1L}));
+    pruner.acknowledge(1, VectorTimestamp.fromLongs(new long[] {0L, 0L, 0L, 1L}));
+    pruner.acknowledge(2, VectorTimestamp.fromLongs(new long[] {0L, 0L, 0L, 1L}));
+
+    // Then
+    assertEquals(1, pruner.prunableCount());
+    assertFalse(pruner.shouldPrune());
+    now[0] += 500L;
+    assertTrue(pruner.shouldPrune());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRetireTwice() {
+    VectorClockPruner pruner = new VectorClockPruner(2);
+    pruner.retire(1, 1L);
+    pruner.retire(1, 1L);
+  }
+}
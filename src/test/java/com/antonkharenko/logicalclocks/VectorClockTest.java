@@ -0,0 +1,136 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class VectorClockTest {
+
+  @Test
+  public void testTick() {
+    // Given
+    VectorClock clock = new VectorClock(1, 3);
+    VectorTimestamp initialTimestamp = clock.time();
+
+    // When
+    VectorTimestamp after = clock.tick();
+
+    // Then
+    assertTrue(after.isHappensAfter(initialTimestamp));
+    assertEquals(1L, after.getAsLong(1));
+  }
+
+  @Test
+  public void testTickWithHappensBeforeTick() {
+    // Given
+    VectorClock senderClock = new VectorClock(0, 3);
+    VectorClock receiverClock = new VectorClock(1, 3);
+
+    // When
+    VectorTimestamp sent = senderClock.tick();
+    VectorTimestamp local = receiverClock.tick();
+    VectorTimestamp received = receiverClock.tick(sent);
+
+    // Then
+    assertTrue(sent.isConcurrent(local));
+    assertTrue(received.isHappensAfter(sent));
+    assertTrue(received.isHappensAfter(local));
+  }
+
+  @Test
+  public void testTickDelta() {
+    // Given
+    VectorClock senderClock = new VectorClock(0, 5);
+    VectorClock receiverClock = new VectorClock(1, 5);
+    VectorClock fullReceiverClock = new VectorClock(1, 5);
+    VectorClock otherClock = new VectorClock(4, 5);
+
+    // When
+    VectorTimestampDelta firstDelta = senderClock.tickDelta(1);
+    receiverClock.tick(firstDelta);
+    fullReceiverClock.tick(senderClock.time());
+    senderClock.tick(otherClock.tick());
+    VectorTimestampDelta secondDelta = senderClock.tickDelta(1);
+    VectorTimestamp received = receiverClock.tick(secondDelta);
+    VectorTimestamp fullReceived = fullReceiverClock.tick(senderClock.time());
+
+    // Then
+    assertEquals(1, firstDelta.size());
+    assertEquals(2, secondDelta.size());
+    assertEquals(4, secondDelta.indexAt(1));
+    assertEquals(fullReceived, received);
+    assertEquals(secondDelta, VectorTimestampDelta.fromBytes(secondDelta.toBytes()));
+  }
+
+  @Test
+  public void testResetDelta() {
+    // Given
+    VectorClock clock = new VectorClock(0, 3);
+    clock.tick(VectorTimestamp.fromLongs(new long[] {0L, 5L, 7L}));
+    clock.tickDelta(1);
+
+    // When
+    clock.resetDelta(1);
+    VectorTimestampDelta delta = clock.tickDelta(1);
+
+    // Then
+    assertEquals(3, delta.size());
+  }
+
+
+  @Test
+  public void testTickWithBatch() {
+    // Given
+    VectorClock receiverClock = new VectorClock(0, 4);
+    VectorClock[] senderClocks = {new VectorClock(1, 4), new VectorClock(2, 4),
+        new VectorClock(3, 4)};
+    VectorTimestamp[] batch = new VectorTimestamp[300];
+    for (int i = 0; i < batch.length; i++) {
+      batch[i] = senderClocks[i % senderClocks.length].tick();
+    }
+    ForkJoinPool pool = new ForkJoinPool(2);
+
+    // When
+    VectorTimestamp received = receiverClock.tick(batch);
+    VectorTimestamp receivedInParallel = receiverClock.tick(batch, pool);
+    pool.shutdown();
+
+    // Then
+    assertArrayEquals(new long[] {1L, 100L, 100L, 100L}, received.toLongs());
+    assertArrayEquals(new long[] {2L, 100L, 100L, 100L}, receivedInParallel.toLongs());
+    for (VectorTimestamp sent : batch) {
+      assertTrue(received.isHappensAfter(sent));
+    }
+  }
+
+  @Test
+  public void testListener() {
+    // Given
+    ClockStatistics senderStatistics = new ClockStatistics();
+    ClockStatistics receiverStatistics = new ClockStatistics();
+    VectorClock senderClock = new VectorClock(0, new VectorTimestamp(3), senderStatistics);
+    VectorClock receiverClock = new VectorClock(1, new VectorTimestamp(3), receiverStatistics);
+
+    // When
+    senderClock.tick();
+    senderClock.tick();
+    receiverClock.tick(senderClock.tick());
+    receiverClock.tick(senderClock.tickDelta(1));
+
+    // Then
+    assertEquals(1L, senderStatistics.sentVectors());
+    assertEquals(1L, senderStatistics.sentEntries());
+    assertEquals(2L, receiverStatistics.receivedVectors());
+    assertEquals(3L + 1L, receiverStatistics.receivedEntries());
+    assertEquals(3L, receiverStatistics.maxReceivedEntries());
+    assertEquals(2L, receiverStatistics.merges());
+    assertEquals(3L + 1L, receiverStatistics.totalAdvance());
+  }
+}
@@ -0,0 +1,143 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class VectorTimestampBatchTest {
+
+  private static final long[] INTERESTING_VALUES =
+      {0L, 1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+
+  @Test
+  public void testCompareMatchesReference() {
+    // Given
+    Random random = new Random(42L);
+    int vectorLength = 5;
+    VectorTimestamp[] timestamps = new VectorTimestamp[300];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = randomTimestamp(random, vectorLength);
+    }
+    VectorTimestampBatch batch = new VectorTimestampBatch(vectorLength, timestamps);
+
+    for (VectorTimestamp timestamp : timestamps) {
+      // When
+      Relation[] relations = batch.compare(timestamp);
+
+      // Then
+      assertEquals(timestamps.length, relations.length);
+      assertArrayEquals(timestamp.compare(timestamps), relations);
+      for (int i = 0; i < timestamps.length; i++) {
+        assertEquals(referenceCompare(timestamp, timestamps[i]), relations[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testSelect() {
+    // Given
+    VectorTimestamp ts = VectorTimestamp.fromLongs(new long[] {2L, 2L});
+    VectorTimestampBatch batch = new VectorTimestampBatch(2);
+    batch.add(VectorTimestamp.fromLongs(new long[] {1L, 2L}));
+    batch.add(VectorTimestamp.fromLongs(new long[] {3L, 1L}));
+    batch.add(VectorTimestamp.fromLongs(new long[] {2L, 2L}));
+    batch.add(VectorTimestamp.fromLongs(new long[] {1L, 0L}));
+    batch.add(VectorTimestamp.fromLongs(new long[] {2L, 3L}));
+
+    // When
+    BitSet dominated = batch.select(ts, Relation.HAPPENS_AFTER);
+    BitSet concurrent = batch.select(ts, Relation.CONCURRENT);
+    BitSet equal = batch.select(ts, Relation.EQUAL);
+    BitSet later = batch.select(ts, Relation.HAPPENS_BEFORE);
+
+    // Then
+    assertEquals(bits(0, 3), dominated);
+    assertEquals(bits(1), concurrent);
+    assertEquals(bits(2), equal);
+    assertEquals(bits(4), later);
+  }
+
+  @Test
+  public void testAddGetSetAndClear() {
+    // Given
+    VectorTimestampBatch batch = new VectorTimestampBatch(3);
+    VectorTimestamp[] timestamps = new VectorTimestamp[40];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = VectorTimestamp.fromLongs(new long[] {i, -i, i * 7L});
+    }
+
+    // When
+    for (int i = 0; i < timestamps.length; i++) {
+      assertEquals(i, batch.add(timestamps[i]));
+    }
+    batch.set(5, timestamps[0]);
+
+    // Then
+    assertEquals(timestamps.length, batch.size());
+    assertEquals(3, batch.vectorLength());
+    assertEquals(timestamps[39], batch.get(39));
+    assertEquals(timestamps[0], batch.get(5));
+
+    batch.clear();
+    assertEquals(0, batch.size());
+    assertEquals(0, batch.compare(timestamps[0]).length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddDifferentLength() {
+    new VectorTimestampBatch(2).add(new VectorTimestamp(3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetOutOfBounds() {
+    new VectorTimestampBatch(2).get(0);
+  }
+
+  private static VectorTimestamp randomTimestamp(Random random, int vectorLength) {
+    long[] entries = new long[vectorLength];
+    for (int j = 0; j < vectorLength; j++) {
+      if (random.nextInt(4) == 0) {
+        entries[j] = INTERESTING_VALUES[random.nextInt(INTERESTING_VALUES.length)];
+      } else {
+        entries[j] = random.nextInt(3);
+      }
+    }
+    return VectorTimestamp.fromLongs(entries);
+  }
+
+  private static Relation referenceCompare(VectorTimestamp thisTs, VectorTimestamp thatTs) {
+    long[] thisEntries = thisTs.toLongs();
+    long[] thatEntries = thatTs.toLongs();
+    boolean before = false;
+    boolean after = false;
+    for (int i = 0; i < thisEntries.length; i++) {
+      int result = LogicalTimestamp.compare(thisEntries[i], thatEntries[i]);
+      before |= result < 0;
+      after |= result > 0;
+    }
+    if (before && after) {
+      return Relation.CONCURRENT;
+    } else if (before) {
+      return Relation.HAPPENS_BEFORE;
+    } else if (after) {
+      return Relation.HAPPENS_AFTER;
+    } else {
+      return Relation.EQUAL;
+    }
+  }
+
+  private static BitSet bits(int... indices) {
+    BitSet bits = new BitSet();
+    for (int index : indices) {
+      bits.set(index);
+    }
+    return bits;
+  }
+}
@@ -0,0 +1,222 @@
+package com.antonkharenko.logicalclocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * @author Anton Kharenko
+ */
+public class VectorTimestampTest {
+
+  @Test
+  public void testNextTimestamp() {
+    // Given
+    VectorTimestamp ts = new VectorTimestamp(3);
+
+    // When
+    VectorTimestamp nextTs = ts.nextTimestamp(1);
+
+    // Then
+    assertArrayEquals(new long[] {0L, 1L, 0L}, nextTs.toLongs());
+    assertEquals(Relation.HAPPENS_BEFORE, ts.compare(nextTs));
+    assertEquals(Relation.HAPPENS_AFTER, nextTs.compare(ts));
+    assertTrue(ts.isHappensBefore(nextTs));
+    assertTrue(nextTs.isHappensAfter(ts));
+  }
+
+  @Test
+  public void testNextTimestampWithHappensBefore() {
+    // Given
+    VectorTimestamp ts = VectorTimestamp.fromLongs(new long[] {5L, 1L, 7L});
+    VectorTimestamp happensBeforeTs = VectorTimestamp.fromLongs(new long[] {2L, 9L, 8L});
+
+    // When
+    VectorTimestamp nextTs = ts.nextTimestamp(0, happensBeforeTs);
+
+    // Then
+    assertArrayEquals(new long[] {6L, 9L, 8L}, nextTs.toLongs());
+    assertTrue(nextTs.isHappensAfter(ts));
+    assertTrue(nextTs.isHappensAfter(happensBeforeTs));
+  }
+
+  @Test
+  public void testNextTimestampWithHappensBeforeOnCounterOverflow() {
+    // Given
+    VectorTimestamp ts = VectorTimestamp.fromLongs(new long[] {Long.MAX_VALUE, 1L});
+    VectorTimestamp happensBeforeTs = VectorTimestamp.fromLongs(new long[] {5L, Long.MIN_VALUE});
+
+    // When
+    VectorTimestamp nextTs = ts.nextTimestamp(0, happensBeforeTs);
+
+    // Then
+    assertArrayEquals(new long[] {Long.MIN_VALUE, Long.MIN_VALUE}, nextTs.toLongs());
+    assertTrue(nextTs.isHappensAfter(ts));
+    assertTrue(nextTs.isHappensAfter(happensBeforeTs));
+  }
+
+  @Test
+  public void testNextTimestampWithManyHappensBefore() {
+    // Given
+    VectorTimestamp ts = VectorTimestamp.fromLongs(new long[] {5L, 1L, 7L});
+    VectorTimestamp[] happensBeforeTimestamps = {
+        VectorTimestamp.fromLongs(new long[] {2L, 9L, 8L}),
+        VectorTimestamp.fromLongs(new long[] {9L, 3L, 3L}),
+        VectorTimestamp.fromLongs(new long[] {1L, 4L, 12L})};
+
+    // When
+    VectorTimestamp nextTs = ts.nextTimestamp(0, happensBeforeTimestamps);
+
+    // Then
+    assertArrayEquals(new long[] {6L, 9L, 12L}, nextTs.toLongs());
+  }
+
+  @Test
+  public void testMerge() {
+    // Given
+    VectorTimestamp[] timestamps = new VectorTimestamp[1000];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = VectorTimestamp.fromLongs(new long[] {i, timestamps.length - i, i % 7});
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    // When
+    VectorTimestamp merged = VectorTimestamp.merge(timestamps);
+    VectorTimestamp mergedInParallel = VectorTimestamp.merge(timestamps, pool);
+    pool.shutdown();
+
+    // Then
+    assertArrayEquals(new long[] {999L, 1000L, 6L}, merged.toLongs());
+    assertEquals(merged, mergedInParallel);
+    assertEquals(timestamps[3], VectorTimestamp.merge(timestamps[3]));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentLength() {
+    VectorTimestamp.merge(new VectorTimestamp(2), new VectorTimestamp(3));
+  }
+
+  @Test
+  public void testConcurrent() {
+    // Given
+    VectorTimestamp ts = new VectorTimestamp(2);
+
+    // When
+    VectorTimestamp ts1 = ts.nextTimestamp(0);
+    VectorTimestamp ts2 = ts.nextTimestamp(1);
+
+    // Then
+    assertEquals(Relation.CONCURRENT, ts1.compare(ts2));
+    assertTrue(ts1.isConcurrent(ts2));
+    assertFalse(ts1.isConcurrent(ts1));
+    assertFalse(ts.isConcurrent(ts1));
+  }
+
+  @Test
+  public void testEqual() {
+    // Given
+    LogicalTimestamp[] timestamps = {LogicalTimestamp.fromLong(3L), LogicalTimestamp.fromLong(4L)};
+
+    // When
+    VectorTimestamp ts1 = new VectorTimestamp(timestamps);
+    VectorTimestamp ts2 = VectorTimestamp.fromLongs(new long[] {3L, 4L});
+
+    // Then
+    assertEquals(Relation.EQUAL, ts1.compare(ts2));
+    assertEquals(ts1, ts2);
+    assertEquals(ts1.hashCode(), ts2.hashCode());
+    assertEquals(timestamps[1], ts1.get(1));
+    assertEquals("[3, 4]", ts1.toString());
+  }
+
+  @Test
+  public void testDenseBytesSerialization() {
+    // Given
+    VectorTimestamp original = VectorTimestamp.fromLongs(new long[] {1L, 300L, 0L, -1L});
+
+    // When
+    byte[] tsBytes = original.toBytes();
+    VectorTimestamp deserialized = VectorTimestamp.fromBytes(tsBytes);
+
+    // Then
+    assertEquals(original, deserialized);
+    assertEquals(1 + 1 + 1 + 2 + 1 + 10, tsBytes.length);
+    assertEquals(original.serializedSize(), tsBytes.length);
+  }
+
+  @Test
+  public void testSparseBytesSerialization() {
+    // Given
+    long[] entries = new long[200];
+    entries[3] = 5L;
+    entries[150] = 1000L;
+    entries[199] = Long.MIN_VALUE;
+    VectorTimestamp original = VectorTimestamp.fromLongs(entries);
+
+    // When
+    byte[] tsBytes = original.toBytes();
+    VectorTimestamp deserialized = VectorTimestamp.fromBytes(tsBytes);
+
+    // Then
+    assertEquals(original, deserialized);
+    assertEquals(1 + 2 + 25 + 1 + 2 + 10, tsBytes.length);
+    assertEquals(original.serializedSize(), tsBytes.length);
+  }
+
+  @Test
+  public void testByteBufferSerialization() {
+    // Given
+    VectorTimestamp first = VectorTimestamp.fromLongs(new long[] {7L, 8L, 9L});
+    VectorTimestamp second = new VectorTimestamp(64);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(first.serializedSize() + second.serializedSize());
+
+    // When
+    first.writeTo(buffer);
+    second.writeTo(buffer);
+    buffer.flip();
+
+    // Then
+    assertEquals(first, VectorTimestamp.readFrom(buffer));
+    assertEquals(second, VectorTimestamp.readFrom(buffer));
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMalformedBytes() {
+    VectorTimestamp.fromBytes(new byte[] {5, 1, 0});
+  }
+
+  @Test
+  public void testJavaSerialization() throws Exception {
+    // Given
+    VectorTimestamp original = VectorTimestamp.fromLongs(new long[] {-1001L, 5L});
+
+    // When
+    ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(byteOutput);
+    out.writeObject(original);
+
+    ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(byteOutput.toByteArray()));
+    VectorTimestamp deserialized = (VectorTimestamp) in.readObject();
+
+    // Then
+    assertEquals(original, deserialized);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompareDifferentLength() {
+    new VectorTimestamp(2).compare(new VectorTimestamp(3));
+  }
+
+}